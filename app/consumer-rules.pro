@@ -0,0 +1,17 @@
+# Rules which are applied to apps using this library
+
+# Binders generated by the compiler module are loaded by [view class name]_VmvBinder,
+# so both the binder and the view class must keep their names
+-keep class * implements com.arash.basemodule.tools.vmvglue.contracts.GeneratedBinder {
+    <init>();
+}
+-if class **_VmvBinder
+-keepnames class <1>
+
+# Subscriber tables generated by the compiler module are loaded by [listener class name]_SessionSubscribers,
+# so both the table and the listener class must keep their names
+-keep class * implements com.arash.basemodule.tools.sessionmanager.GeneratedSubscribers {
+    <init>();
+}
+-if class **_SessionSubscribers
+-keepnames class <1>
@@ -0,0 +1,110 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.content.Context;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.arash.basemodule.contracts.Observable;
+import com.arash.basemodule.tools.ObservableImp;
+import com.arash.basemodule.tools.vmvglue.contracts.VmBindInfo;
+import com.arash.basemodule.tools.vmvglue.contracts.XmlBindInfo;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class ItemBinderTest {
+    private static final int NAME_ID = 1;
+    private static final int BROKEN_ID = 2;
+    private static final int PRICE_ID = 3;
+
+    public static class Row {
+        final ObservableImp<String> name;
+        final String price;
+
+        Row(String name, String price) {
+            this.name = new ObservableImp<>(name);
+            this.price = price;
+        }
+
+        public Observable<String> getName() {
+            return name;
+        }
+
+        public String getBroken() {
+            throw new IllegalStateException("broken row");
+        }
+
+        public String getPrice() {
+            return price;
+        }
+    }
+
+    public static class RowHolder {
+        @XmlBindInfo(NAME_ID)
+        @VmBindInfo(elmSetter = "setText", vmGetter = "getName", registerForVmChanges = true)
+        TextView name;
+
+        @XmlBindInfo(BROKEN_ID)
+        @VmBindInfo(elmSetter = "setText", vmGetter = "getBroken")
+        TextView broken;
+
+        @XmlBindInfo(PRICE_ID)
+        @VmBindInfo(elmSetter = "setText", vmGetter = "getPrice")
+        TextView price;
+    }
+
+    private static LinearLayout itemView(Context context) {
+        LinearLayout root = new LinearLayout(context);
+        for (int id : new int[]{NAME_ID, BROKEN_ID, PRICE_ID}) {
+            TextView text = new TextView(context);
+            text.setId(id);
+            root.addView(text);
+        }
+        return root;
+    }
+
+    @Test
+    public void rebindMovesToTheNewItem() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            RowHolder holder = new RowHolder();
+            ItemBinder binder = ItemBinder.create(holder, itemView(context), Row.class);
+            Row first = new Row("first", "1");
+            Row second = new Row("second", "2");
+
+            binder.bind(first);
+            assertEquals("first", holder.name.getText().toString());
+            binder.bind(second);
+            assertEquals("second", holder.name.getText().toString());
+            assertEquals("2", holder.price.getText().toString());
+
+            first.name.setValue("first changed");// the previous item must not reach the recycled views
+            assertEquals("second", holder.name.getText().toString());
+            second.name.setValue("second changed");
+            assertEquals("second changed", holder.name.getText().toString());
+
+            binder.unbind();
+            second.name.setValue("unbound");
+            assertEquals("second changed", holder.name.getText().toString());
+        });
+    }
+
+    @Test
+    public void failingFieldDoesNotStopTheOthers() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            RowHolder holder = new RowHolder();
+            ItemBinder binder = ItemBinder.create(holder, itemView(context), Row.class);
+            binder.bind(new Row("name", "10"));
+            assertEquals("name", holder.name.getText().toString());
+            assertEquals("", holder.broken.getText().toString());
+            assertEquals("10", holder.price.getText().toString());
+        });
+    }
+}
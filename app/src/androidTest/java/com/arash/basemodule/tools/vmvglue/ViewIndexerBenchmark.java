@@ -0,0 +1,86 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Resolving bound fields of a synthetic 500-view hierarchy: one findViewById() per field (before) versus a single ViewIndexer traversal (after)
+ */
+@RunWith(AndroidJUnit4.class)
+public class ViewIndexerBenchmark {
+    private static final int VIEW_COUNT = 500;
+    private static final int GROUP_SIZE = 10;
+    private static final int FIELD_COUNT = 60;
+    private static final int ROUNDS = 2000;
+
+    @Test
+    public void resolveFields() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View root = buildHierarchy(context);
+
+        // bound ids are spread over the whole tree, like fields of a large form
+        int[] ids = new int[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++)
+            ids[i] = 1 + i * (VIEW_COUNT / FIELD_COUNT);
+
+        SparseArray<View> indexed = ViewIndexer.index(root, ids);
+        for (int id : ids)
+            assertSame(root.findViewById(id), indexed.get(id));
+
+        for (int i = 0; i < ROUNDS / 10; i++) {// warm up
+            findOneByOne(root, ids);
+            ViewIndexer.index(root, ids);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            findOneByOne(root, ids);
+        long before = (System.nanoTime() - start) / ROUNDS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            ViewIndexer.index(root, ids);
+        long after = (System.nanoTime() - start) / ROUNDS;
+
+        Log.i("ViewIndexerBenchmark", String.format("%d fields in %d views: findViewById=%dns, ViewIndexer=%dns per bind", FIELD_COUNT, VIEW_COUNT, before, after));
+    }
+
+    private static int findOneByOne(View root, int[] ids) {
+        int found = 0;
+        for (int id : ids) {
+            if (root.findViewById(id) != null)
+                found++;
+        }
+        return found;
+    }
+
+    /**
+     * @return nested LinearLayouts holding VIEW_COUNT TextViews with ids 1..VIEW_COUNT
+     */
+    private static View buildHierarchy(Context context) {
+        LinearLayout root = new LinearLayout(context);
+        LinearLayout group = null;
+        for (int i = 1; i <= VIEW_COUNT; i++) {
+            if ((i - 1) % GROUP_SIZE == 0) {
+                LinearLayout parent = group == null ? root : group;
+                group = new LinearLayout(context);
+                parent.addView(group);
+            }
+            TextView tv = new TextView(context);
+            tv.setId(i);
+            group.addView(tv);
+        }
+        return root;
+    }
+}
@@ -9,6 +9,8 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 
 import com.arash.basemodule.tools.Utils;
+import com.arash.basemodule.tools.vmvglue.BindProcessor;
+import com.arash.basemodule.tools.vmvglue.BindTarget;
 import com.arash.basemodule.tools.vmvglue.ListenerProvider;
 
 import org.codejargon.feather.Feather;
@@ -29,7 +31,7 @@ public class BaseModule extends Application {
 
     @Override
     public void onCreate() {
-        init(getApplicationContext(), getModuleInstances());
+        init(getApplicationContext(), getModuleInstances(), getPrewarmTargets());
         super.onCreate();
     }
 
@@ -40,7 +42,20 @@ public class BaseModule extends Application {
         return modules;
     }
 
+    /**
+     * Override it to list the screens whose binding schemas must be built in background during application start
+     *
+     * @return view & view-model classes as they are passed to BindProcessor.init()
+     */
+    public List<BindTarget> getPrewarmTargets() {
+        return new LinkedList<>();
+    }
+
     public static void init(Context context, List<Object> modules) {
+        init(context, modules, new LinkedList<>());
+    }
+
+    public static void init(Context context, List<Object> modules, List<BindTarget> prewarmTargets) {
         if (appContext == null) {
             Thread.setDefaultUncaughtExceptionHandler(new UncaughtExceptionHandler());
 
@@ -48,6 +63,8 @@ public class BaseModule extends Application {
             handler = new Handler(context.getMainLooper());
 
             feather = Feather.with(modules.toArray());
+
+            BindProcessor.prewarm(prewarmTargets);
         }
     }
 
@@ -128,6 +128,16 @@ public class BaseActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (isSessionTriggered()) {// each instance keeps its own subscription, so a recreated activity must not leave the old one behind
+            SessionRepository.Session session = SessionRepository.findSession(getSessionName());
+            if (session != null)
+                session.unregister(this);
+        }
+    }
+
     private boolean isBindProcessorEnabled() {
         return getIntent().getBooleanExtra("bindProcessorEnabled", false);
     }
@@ -0,0 +1,20 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+/**
+ * Gets notified when a bounded session drops an entry by itself. It is called on the thread which touched the session, out of any lock
+ */
+public interface EvictionListener {
+    enum Reason {
+        EXPIRED,// entry lived longer than SessionLimits.ttl()
+        MAX_ENTRIES,// session had more entries than SessionLimits.maxEntries()
+        BYTE_BUDGET// session took more memory than SessionLimits.byteBudget()
+    }
+
+    /**
+     * @param session the session which has dropped the entry
+     * @param key     entry name
+     * @param value   dropped value
+     * @param reason  why it is dropped
+     */
+    void onEvicted(SessionRepository.Session session, String key, Object value, Reason reason);
+}
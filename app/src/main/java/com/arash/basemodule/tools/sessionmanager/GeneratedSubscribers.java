@@ -0,0 +1,67 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Annotation processor (compiler module) generates an implementation of this interface for every class which has @ListenFor methods.
+ * The generated class is named as [listener class name]_SessionSubscribers and lives next to the listener class.<br/>
+ * Session uses it instead of scanning the class and calls listener methods directly, so no Method.invoke() is involved on signal delivery
+ */
+public interface GeneratedSubscribers {
+    /**
+     * @return number of @ListenFor methods in the whole hierarchy of the listener class
+     */
+    int getCount();
+
+    /**
+     * @param index subscriber index
+     * @return name of the listener method
+     */
+    String getMethodName(int index);
+
+    /**
+     * @param index subscriber index
+     * @return the key which the method listens to
+     */
+    String getKeyword(int index);
+
+    /**
+     * @param index subscriber index
+     * @return ListenFor.mainThread() of the method
+     */
+    boolean isMainThread(int index);
+
+    /**
+     * @param index subscriber index
+     * @return ListenFor.sticky() of the method
+     */
+    boolean isSticky(int index);
+
+    /**
+     * @param index subscriber index
+     * @return ListenFor.latestOnly() of the method
+     */
+    boolean isLatestOnly(int index);
+
+    /**
+     * @param index subscriber index
+     * @return ListenFor.dispatcher() of the method
+     */
+    String getDispatcher(int index);
+
+    /**
+     * @param index subscriber index
+     * @return parameter type of the method (primitives are boxed) or Void.class if it has no parameter
+     */
+    Class<?> getParamType(int index);
+
+    /**
+     * call the listener method directly
+     *
+     * @param index  subscriber index
+     * @param target listener instance
+     * @param arg    signal data. It is already checked against getParamType() and ignored for methods without parameter
+     * @throws InvocationTargetException if the listener method throws any exception
+     */
+    void dispatch(int index, Object target, Object arg) throws InvocationTargetException;
+}
@@ -24,4 +24,19 @@ public @interface ListenFor {
      * @return the key will be deleted from session as soon as possible
      */
     boolean sticky() default false;
+
+    /**
+     * Main thread signals are queued and delivered in one go on the next looper turn. Normally all queued signals are delivered in the order they were put
+     *
+     * @return true if just the latest queued value is enough for you. It is ignored when mainThread() is false
+     */
+    boolean latestOnly() default false;
+
+    /**
+     * Background listeners run on the thread which puts the signal by default. Name a dispatcher to run them on a serial queue of the session instead,
+     * so signals keep their order and a slow listener does not hold the putting thread. See SessionRepository.setDispatcher()
+     *
+     * @return dispatcher name. It is ignored when mainThread() is true
+     */
+    String dispatcher() default "";
 }
@@ -0,0 +1,42 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks one by one, in the order they were given, on top of a shared executor.<br/>
+ * Each task is handed to the backing executor separately, so many serial queues share a pool without one of them holding a thread for ever
+ */
+final class SerialExecutor implements Executor {
+    private final Executor backing;
+
+    // waiting tasks, guarded by this
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private Runnable active;
+
+    SerialExecutor(Executor backing) {
+        this.backing = backing;
+    }
+
+    @Override
+    public synchronized void execute(final Runnable task) {
+        tasks.add(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            }
+        });
+        if (active == null)
+            scheduleNext();
+    }
+
+    private synchronized void scheduleNext() {
+        active = tasks.poll();
+        if (active != null)
+            backing.execute(active);
+    }
+}
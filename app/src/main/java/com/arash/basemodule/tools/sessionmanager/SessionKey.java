@@ -0,0 +1,258 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A typed handle of a session entry. Keep it in a static final field and pass it to Session instead of the key string:<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;static final SessionKey&lt;User&gt; USER = SessionKey.of("user", User.class);<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;session.put(USER, user);<br/>
+ * There is one key per name at a time, so a key string, a typed key and @ListenFor(keyword) with the same name refer to the same entry.
+ * Keys made by of() and keywords of @ListenFor are kept for the whole process. A key which is used just by its string is kept while an entry or a caller holds it,
+ * so key names made out of variable data do not pile up.<br/>
+ * Keys are compared by identity and hashed by a precomputed index, so lookups skip String hashing and comparison.<br/>
+ * A key's type is declared once. Values put by its name later are checked against it and subscribers are checked at subscribe time instead of on each signal.<br/>
+ * Counters and flags may use IntKey, LongKey and BooleanKey to keep their value unboxed in the session
+ *
+ * @param <T> value type
+ */
+public final class SessionKey<T> {
+    // name -> key. Keys are held weakly, entries of collected keys are dropped on the next lookup
+    private static final ConcurrentHashMap<String, KeyRef> keys = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<SessionKey<?>> collected = new ReferenceQueue<>();
+    // keys which are declared by of() or listened by @ListenFor. They stay canonical for the whole process
+    private static final Set<SessionKey<?>> interned = Collections.newSetFromMap(new ConcurrentHashMap<SessionKey<?>, Boolean>());
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    private final String name;
+    private final int index;
+
+    // declared type (primitives are boxed) or null if the key is only used by name yet
+    private volatile Class<?> type;
+
+    private SessionKey(String name) {
+        this.name = name;
+        this.index = counter.getAndIncrement();
+    }
+
+    /**
+     * @param name key name
+     * @param type value type
+     * @return the key of the name
+     * @throws IllegalArgumentException if the key is declared by another type already
+     */
+    public static <T> SessionKey<T> of(String name, Class<T> type) {
+        SessionKey<?> key = interned(name);
+        key.declare(box(type));
+        @SuppressWarnings("unchecked")
+        SessionKey<T> typed = (SessionKey<T>) key;
+        return typed;
+    }
+
+    /**
+     * @return an unboxed int key
+     * @throws IllegalArgumentException if the key is declared by another type already
+     */
+    public static IntKey ofInt(String name) {
+        return new IntKey(of(name, Integer.class));
+    }
+
+    /**
+     * @return an unboxed long key
+     * @throws IllegalArgumentException if the key is declared by another type already
+     */
+    public static LongKey ofLong(String name) {
+        return new LongKey(of(name, Long.class));
+    }
+
+    /**
+     * @return an unboxed boolean key
+     * @throws IllegalArgumentException if the key is declared by another type already
+     */
+    public static BooleanKey ofBoolean(String name) {
+        return new BooleanKey(of(name, Boolean.class));
+    }
+
+    /**
+     * @return the key of the name. Its type is not declared if nobody has declared it yet. It is dropped when nobody holds it any more
+     */
+    static SessionKey<?> named(String name) {
+        purge();
+        while (true) {
+            KeyRef ref = keys.get(name);
+            SessionKey<?> key = ref == null ? null : ref.get();
+            if (key != null)
+                return key;
+            key = new SessionKey<>(name);
+            KeyRef fresh = new KeyRef(key);
+            if (ref == null ? keys.putIfAbsent(name, fresh) == null : keys.replace(name, ref, fresh))
+                return key;
+            // another thread made the key meanwhile
+        }
+    }
+
+    /**
+     * @return the key of the name, which is kept for the whole process. It is used for keys of listener methods
+     */
+    static SessionKey<?> interned(String name) {
+        SessionKey<?> key = named(name);
+        interned.add(key);
+        return key;
+    }
+
+    /**
+     * @return the key of the name or null if it is not in use
+     */
+    static SessionKey<?> find(String name) {
+        KeyRef ref = keys.get(name);
+        return ref == null ? null : ref.get();
+    }
+
+    /**
+     * @return number of names which have a key, for tests
+     */
+    static int size() {
+        purge();
+        return keys.size();
+    }
+
+    private static void purge() {
+        Reference<? extends SessionKey<?>> ref;
+        while ((ref = collected.poll()) != null)
+            keys.remove(((KeyRef) ref).name, ref);
+    }
+
+    private static final class KeyRef extends WeakReference<SessionKey<?>> {
+        final String name;
+
+        KeyRef(SessionKey<?> key) {
+            super(key, collected);
+            name = key.name;
+        }
+    }
+
+    private synchronized void declare(Class<?> type) {
+        if (this.type == null) {
+            this.type = type;
+        } else if (this.type != type) {
+            throw new IllegalArgumentException("session key " + name + " is declared as " + this.type.getName() + " already");
+        }
+    }
+
+    /**
+     * @return key name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return declared type or null if it is not declared
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @throws ClassCastException if the value does not match the declared type
+     */
+    void check(Object value) {
+        Class<?> t = type;
+        if (value != null && t != null && !t.isInstance(value))
+            throw new ClassCastException("session key " + name + " accepts " + t.getName() + " while " + value.getClass().getName() + " is given");
+    }
+
+    /**
+     * @return primitives as their wrapper class, other types as they are
+     */
+    static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        if (type == int.class)
+            return Integer.class;
+        if (type == long.class)
+            return Long.class;
+        if (type == boolean.class)
+            return Boolean.class;
+        if (type == double.class)
+            return Double.class;
+        if (type == float.class)
+            return Float.class;
+        if (type == short.class)
+            return Short.class;
+        if (type == byte.class)
+            return Byte.class;
+        if (type == char.class)
+            return Character.class;
+        return Void.class;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * int entry which is kept unboxed. Use Session.put(IntKey, int) and Session.get(IntKey, int)
+     */
+    public static final class IntKey {
+        final SessionKey<Integer> key;
+
+        private IntKey(SessionKey<Integer> key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the same entry as a boxed typed key
+         */
+        public SessionKey<Integer> boxed() {
+            return key;
+        }
+    }
+
+    /**
+     * long entry which is kept unboxed. Use Session.put(LongKey, long) and Session.get(LongKey, long)
+     */
+    public static final class LongKey {
+        final SessionKey<Long> key;
+
+        private LongKey(SessionKey<Long> key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the same entry as a boxed typed key
+         */
+        public SessionKey<Long> boxed() {
+            return key;
+        }
+    }
+
+    /**
+     * boolean entry which is kept unboxed. Use Session.put(BooleanKey, boolean) and Session.get(BooleanKey, boolean)
+     */
+    public static final class BooleanKey {
+        final SessionKey<Boolean> key;
+
+        private BooleanKey(SessionKey<Boolean> key) {
+            this.key = key;
+        }
+
+        /**
+         * @return the same entry as a boxed typed key
+         */
+        public SessionKey<Boolean> boxed() {
+            return key;
+        }
+    }
+}
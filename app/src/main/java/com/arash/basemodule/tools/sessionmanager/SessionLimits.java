@@ -0,0 +1,117 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Optional bounds of a session. Least recently used entries are dropped when the session gets over maxEntries() or byteBudget(),
+ * and entries which are older than ttl() are dropped as soon as the session is touched:<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;session.setLimits(new SessionLimits().maxEntries(200).ttl(10 * 60_000).byteBudget(1 &lt;&lt; 20).onEvicted(listener));<br/>
+ * Zero means no limit. Limits are copied by Session.setLimits(), so changing this object later has no effect on the session
+ */
+public final class SessionLimits {
+    /**
+     * Estimates memory usage of a value in bytes
+     */
+    public interface SizeOf {
+        long sizeOf(Object value);
+    }
+
+    /**
+     * A rough estimation which is good enough for strings, boxed primitives, arrays and collections. Other objects count as 64 bytes
+     */
+    public static final SizeOf DEFAULT_SIZE_OF = new SizeOf() {
+        @Override
+        public long sizeOf(Object value) {
+            if (value == null)
+                return 0;
+            if (value instanceof CharSequence)
+                return 40 + 2L * ((CharSequence) value).length();
+            if (value instanceof Number || value instanceof Boolean || value instanceof Character)
+                return 16;
+            if (value instanceof byte[])
+                return 16 + ((byte[]) value).length;
+            if (value.getClass().isArray())
+                return 16 + 8L * Array.getLength(value);
+            if (value instanceof Collection)
+                return 40 + 16L * ((Collection<?>) value).size();
+            if (value instanceof Map)
+                return 48 + 32L * ((Map<?, ?>) value).size();
+            return 64;
+        }
+    };
+
+    private int maxEntries;
+    private long ttl;
+    private long byteBudget;
+    private SizeOf sizeOf = DEFAULT_SIZE_OF;
+    private EvictionListener listener;
+
+    /**
+     * @param maxEntries maximum number of entries
+     */
+    public SessionLimits maxEntries(int maxEntries) {
+        if (maxEntries < 0)
+            throw new IllegalArgumentException("maxEntries can not be negative");
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    /**
+     * @param millis life time of an entry since it is put
+     */
+    public SessionLimits ttl(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("ttl can not be negative");
+        this.ttl = millis;
+        return this;
+    }
+
+    /**
+     * @param bytes approximate memory the entries may take
+     */
+    public SessionLimits byteBudget(long bytes) {
+        return byteBudget(bytes, DEFAULT_SIZE_OF);
+    }
+
+    /**
+     * @param bytes  approximate memory the entries may take
+     * @param sizeOf your own estimation, as you know your values better
+     */
+    public SessionLimits byteBudget(long bytes, SizeOf sizeOf) {
+        if (bytes < 0)
+            throw new IllegalArgumentException("byteBudget can not be negative");
+        this.byteBudget = bytes;
+        this.sizeOf = sizeOf;
+        return this;
+    }
+
+    /**
+     * @param listener gets notified of dropped entries
+     */
+    public SessionLimits onEvicted(EvictionListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public long ttl() {
+        return ttl;
+    }
+
+    public long byteBudget() {
+        return byteBudget;
+    }
+
+    public SizeOf sizeOf() {
+        return sizeOf;
+    }
+
+    public EvictionListener listener() {
+        return listener;
+    }
+}
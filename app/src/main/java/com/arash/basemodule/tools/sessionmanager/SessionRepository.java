@@ -1,19 +1,40 @@
 package com.arash.basemodule.tools.sessionmanager;
 
 
+import android.content.Context;
 import android.os.Handler;
 
 import com.arash.basemodule.BaseModule;
+import com.arash.basemodule.contracts.Consumer;
+import com.arash.basemodule.contracts.Supplier;
 import com.arash.basemodule.tools.Utils;
 
+import java.io.File;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URLEncoder;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Arash Rezaie
@@ -27,16 +48,65 @@ import java.util.concurrent.Executors;
  * In this case, what happens when an observer deletes a key and some other module needs to access the key yet?<br>
  * The answer is: All consequences is up to you. You are the manager.
  * </p>
+ * <p>
+ * All methods are thread safe. Data and subscriber tables live in concurrent maps and subscriber lists are copy-on-write arrays,
+ * so put(), get() and signal dispatch take no lock. Only register() and unregister() lock their own session
+ * </p>
  */
 public final class SessionRepository {
     // session repository
-    private final static HashMap<String, Session> repository = new HashMap<>();
+    private final static ConcurrentHashMap<String, Session> repository = new ConcurrentHashMap<>();
+
+    // default number of threads of the shared pool
+    public final static int DEFAULT_PARALLELISM = 2;
 
     // default session name
     private final static String DEFAULT_SESSION_NAME = Session.class.getName() + "_default";
 
-    // I do not want to keep classes waiting in registration time, so I hired a thread pool for all sessions
-    private final static Executor worker = Executors.newSingleThreadExecutor();
+    // I do not want to keep classes waiting in registration time, so I hired a thread pool for all sessions.
+    // Sessions and dispatchers get their own serial queues on it, so a slow listener in one of them does not stall the others
+    private final static ThreadPoolExecutor pool = new ThreadPoolExecutor(DEFAULT_PARALLELISM, DEFAULT_PARALLELISM, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), daemonThreads("session-dispatcher-"));
+
+    // number of threads which run getOrLoadAsync() loaders
+    private final static int LOADER_THREADS = 4;
+
+    // getOrLoadAsync() runs loaders here unless an executor is given. Loaders usually wait for I/O, so they must not hold threads of the dispatcher pool
+    private final static ThreadPoolExecutor loaders = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), daemonThreads("session-loader-"));
+
+    static {
+        pool.allowCoreThreadTimeOut(true);
+        loaders.allowCoreThreadTimeOut(true);
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, prefix + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+
+    private final static Runnable NOTHING = () -> {
+    };
+
+    // directory of persistent session files, null to use the default one
+    private static volatile File persistenceDir;
+    // names of persistent sessions
+    private final static Set<String> persistentSessions = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    // maximum number of sessions, 0 for no limit
+    private static volatile int maxSessions;
+    private static volatile Consumer<Session> sessionEvictionListener;
+    // source of Session.lastAccess
+    private final static AtomicLong accessCounter = new AtomicLong();
+
+    // dispatcher name -> executor which is set by setDispatcher()
+    private final static ConcurrentHashMap<String, Executor> dispatchers = new ConcurrentHashMap<>();
 
     /**
      * Client data is going to be handled in this class
@@ -45,71 +115,114 @@ public final class SessionRepository {
         //session keeps its own name to make its management easier by SessionRepository
         private final String myName;
 
-        //main data repository<key, data>
-        private final HashMap<String, Object> session = new HashMap<>();
+        //main data repository<key, data>. Null values are kept as NULL and values of primitive keys as Unboxed holders
+        private final ConcurrentHashMap<SessionKey<?>, Object> session = new ConcurrentHashMap<>();
+
+        //subscriber container<data key, subscribers>. Arrays are never changed, they are replaced under subscriberLock
+        private final ConcurrentHashMap<SessionKey<?>, Subscriber[]> subscribers = new ConcurrentHashMap<>();
+
+        //listener -> token of its last register() call which is not done yet. Registration is done in background, so an unregister() in the meantime cancels it. Guarded by subscriberLock
+        private final Map<Object, Object> pendingRegistrations = new IdentityHashMap<>();
+
+        private final Object subscriberLock = new Object();
+
+        //key -> loader which is running or queued for it. Concurrent getOrLoad() calls share it
+        private final ConcurrentHashMap<SessionKey<?>, Load> loading = new ConcurrentHashMap<>();
+
+        //file of a persistent session, null if it lives in memory only
+        private volatile SessionStore store;
+
+        //bounds of the session, null if it is unbounded
+        private volatile Limits limits;
 
-        //subscriber container<data key, subscribers>
-        private HashMap<String, List<Subscriber>> subscribers;
+        //the last time getSession() returned this session, for evicting sessions when there are too many of them
+        private volatile long lastAccess;
+
+        //number of pin() calls which are not unpinned yet. A pinned session is never evicted by setMaxSessions()
+        private final AtomicInteger pins = new AtomicInteger();
+
+        //registration jobs of this session run one by one
+        private final Executor registrationQueue = new SerialExecutor(pool);
+
+        //dispatcher name -> serial queue of this session on that dispatcher
+        private final ConcurrentHashMap<String, Executor> dispatcherQueues = new ConcurrentHashMap<>();
 
         /**
-         * Subscriber info
+         * A listener instance attached to one of its class's subscriber methods
          */
         private class Subscriber {
             // listener class
-            private Object target;
+            private final Object target;
 
-            // listener itself
-            private Method method;
+            // listener method and its features
+            private final SubscriberMethod desc;
 
-            // invoke method in main thread if this field is true
-            private boolean mainThread;
+            // serial queue of the named dispatcher, null if the listener runs on the main thread or the putting thread
+            private final Executor queue;
 
-            // clear target record if this field is set true
-            private boolean sticky;
+            // true if the key type is checked against the parameter type at subscribe time, so signals need no cast
+            private final boolean checked;
 
-            // method parameter's type
-            private Class<?> paramType;
-
-            Subscriber(Object target, Method method, boolean mainThread, boolean sticky) {
+            Subscriber(Object target, SubscriberMethod desc) {
                 this.target = target;
-                this.method = method;
-                this.mainThread = mainThread;
-                this.sticky = sticky;
-                this.method.setAccessible(true);
-                Class<?>[] types = method.getParameterTypes();
-                if (types.length == 0) {
-                    this.paramType = Void.class;
-                } else if (types.length == 1) {
-                    this.paramType = types[0];
-                } else {
-                    throw new RuntimeException("number of parameters for " + method.getName() + " can not be greater than 1");
-                }
+                this.desc = desc;
+                this.queue = desc.mainThread || desc.dispatcher.isEmpty() ? null : getDispatcherQueue(desc.dispatcher);
+                Class<?> keyType = desc.key.getType();
+                this.checked = desc.paramType == Void.class || (keyType != null && desc.paramType.isAssignableFrom(keyType));
             }
 
-            private void run(String key, Object data) {
-                if (mainThread) {
-                    BaseModule.feather.instance(Handler.class).post(() -> invoke(key, data));
+            private void run(SessionKey<?> key, Object data) {
+                if (desc.mainThread) {
+                    mainThreadQueue.post(this, key, data);
+                } else if (queue != null) {
+                    queue.execute(() -> invoke(key, data));
                 } else {
-                    invoke(key, data);
+                    synchronized (this) {// so the registration signal can not overtake a put which it has not seen
+                        invoke(key, data);
+                    }
                 }
             }
 
-            private void invoke(String key, Object data) {
+            private void invoke(SessionKey<?> key, Object data) {
+                if (data == CURRENT) {// read it here, at the end of the same path a put takes. So it is never older than a signal which is delivered before it
+                    data = read(key);
+                    if (data == null)// removed meanwhile
+                        return;
+                    data = unwrap(data);
+                }
                 try {
-                    if (paramType == Void.class) {
-                        method.invoke(target);
-                    } else {
-                        method.invoke(target, paramType.cast(data));
-                    }
-                    if (!sticky) {
-                        remove(key);
+                    desc.call(target, checked ? data : desc.paramType.cast(data));
+                    if (!desc.sticky) {
+                        removeIfSame(key, data);// a newer value which is put in the meantime must stay
                     }
                 } catch (ClassCastException e) {
-                    Utils.log(e, "posted data must be of type: " + this.paramType.getName());
+                    Utils.log(e, "posted data must be of type: " + desc.paramType.getName());
                 } catch (IllegalAccessException e) {
-                    Utils.log(e, "Oops! I couldn't invoke " + this.method.getName());
+                    Utils.log(e, "Oops! I couldn't invoke " + desc.name);
                 } catch (InvocationTargetException e) {
-                    Utils.log(e, "Oops! I couldn't invoke " + this.method.getName());
+                    Utils.log(e, "Oops! I couldn't invoke " + desc.name);
+                }
+            }
+        }
+
+        /**
+         * A loader of a key. It knows the thread which runs it, so a loader which asks for its own key fails instead of waiting for itself forever
+         */
+        private static final class Load extends FutureTask<Object> {
+            private final AtomicReference<Thread> runner = new AtomicReference<>();
+
+            Load(Callable<Object> callable) {
+                super(callable);
+            }
+
+            @Override
+            public void run() {
+                if (!runner.compareAndSet(null, Thread.currentThread()))
+                    return;// it is running on another thread
+                try {
+                    super.run();
+                } finally {
+                    runner.set(null);
                 }
             }
         }
@@ -134,6 +247,9 @@ public final class SessionRepository {
          * @return number of records in session
          */
         public int getSize() {
+            Limits l = limits;
+            if (l != null)
+                l.sweep();
             return session.size();
         }
 
@@ -144,7 +260,15 @@ public final class SessionRepository {
          * @return true if there is a record named as key
          */
         public boolean containsKey(String key) {
-            return session.containsKey(key);
+            SessionKey<?> k = SessionKey.find(key);
+            return k != null && read(k) != null;
+        }
+
+        /**
+         * @see #containsKey(String)
+         */
+        public boolean containsKey(SessionKey<?> key) {
+            return read(key) != null;
         }
 
         /**
@@ -154,7 +278,14 @@ public final class SessionRepository {
          * @return true if there is at lease one record containing your desired object
          */
         public boolean containsValue(Object value) {
-            return session.containsValue(value);
+            Limits l = limits;
+            if (l != null)
+                l.sweep();
+            for (Object v : session.values()) {
+                if (same(unwrap(v), value))
+                    return true;
+            }
+            return false;
         }
 
         /**
@@ -165,31 +296,314 @@ public final class SessionRepository {
          * @return desired object
          */
         public Object get(String key, Object defaultValue) {
-            if (session.containsKey(key)) {
-                return session.get(key);
-            } else {
-                session.put(key, defaultValue);
-                return defaultValue;
+            SessionKey<?> k = SessionKey.named(key);
+            k.check(defaultValue);
+            return getOrPut(k, defaultValue);
+        }
+
+        /**
+         * @see #get(String, Object)
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(SessionKey<T> key, T defaultValue) {
+            return (T) getOrPut(key, defaultValue);
+        }
+
+        /**
+         * @see #get(String, Object)
+         */
+        public int get(SessionKey.IntKey key, int defaultValue) {
+            Object value = read(key.key);
+            if (value instanceof IntValue)
+                return ((IntValue) value).value;
+            if (value == null) {
+                value = storeIfAbsent(key.key, new IntValue(defaultValue));
+                if (value == null)
+                    return defaultValue;
+            }
+            value = unwrap(value);
+            return value == null ? defaultValue : (Integer) value;
+        }
+
+        /**
+         * @see #get(String, Object)
+         */
+        public long get(SessionKey.LongKey key, long defaultValue) {
+            Object value = read(key.key);
+            if (value instanceof LongValue)
+                return ((LongValue) value).value;
+            if (value == null) {
+                value = storeIfAbsent(key.key, new LongValue(defaultValue));
+                if (value == null)
+                    return defaultValue;
+            }
+            value = unwrap(value);
+            return value == null ? defaultValue : (Long) value;
+        }
+
+        /**
+         * @see #get(String, Object)
+         */
+        public boolean get(SessionKey.BooleanKey key, boolean defaultValue) {
+            Object value = read(key.key);
+            if (value instanceof BooleanValue)
+                return ((BooleanValue) value).value;
+            if (value == null) {
+                value = storeIfAbsent(key.key, new BooleanValue(defaultValue));
+                if (value == null)
+                    return defaultValue;
+            }
+            value = unwrap(value);
+            return value == null ? defaultValue : (Boolean) value;
+        }
+
+        private Object getOrPut(SessionKey<?> key, Object defaultValue) {
+            Object value = read(key);
+            if (value == null) {
+                value = storeIfAbsent(key, wrap(defaultValue));
+                if (value == null)
+                    return defaultValue;
+            }
+            return unwrap(value);
+        }
+
+        /**
+         * Get the value or load it if it is missing. The loaded value is put into the session, so @ListenFor subscribers of the key get notified.<br/>
+         * If another thread is loading the same key, I wait for it instead of loading it again
+         *
+         * @param key    the keyword
+         * @param loader computes the value on the calling thread. Its exception is thrown to all callers which wait for it
+         * @return the value
+         * @throws IllegalStateException if it is called by the loader of the same key, which would wait for itself forever
+         */
+        public Object getOrLoad(String key, Supplier<?> loader) {
+            return load(SessionKey.named(key), loader, true);
+        }
+
+        /**
+         * @see #getOrLoad(String, Supplier)
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T getOrLoad(SessionKey<T> key, Supplier<? extends T> loader) {
+            return (T) load(key, loader, false);
+        }
+
+        /**
+         * The same as getOrLoad(), but the loader runs on a pool of loader threads. Subscribe for the key or wait for the returned future to get the value.<br/>
+         * A load which is running or queued already is shared, so no thread is held just to wait for it. Cancelling the future cancels the load for all of its callers
+         *
+         * @see #getOrLoad(String, Supplier)
+         */
+        public Future<Object> getOrLoadAsync(String key, Supplier<?> loader) {
+            return loadAsync(SessionKey.named(key), loader, true, loaders);
+        }
+
+        /**
+         * @param executor runs the loader, e.g. your I/O executor
+         * @see #getOrLoadAsync(String, Supplier)
+         */
+        public Future<Object> getOrLoadAsync(String key, Supplier<?> loader, Executor executor) {
+            return loadAsync(SessionKey.named(key), loader, true, executor);
+        }
+
+        /**
+         * @see #getOrLoadAsync(String, Supplier)
+         */
+        public <T> Future<T> getOrLoadAsync(SessionKey<T> key, Supplier<? extends T> loader) {
+            return getOrLoadAsync(key, loader, loaders);
+        }
+
+        /**
+         * @see #getOrLoadAsync(String, Supplier, Executor)
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Future<T> getOrLoadAsync(SessionKey<T> key, Supplier<? extends T> loader, Executor executor) {
+            return (Future<T>) (Future<?>) loadAsync(key, loader, false, executor);
+        }
+
+        private Object load(SessionKey<?> key, Supplier<?> loader, boolean check) {
+            Object value = read(key);
+            if (value != null)
+                return unwrap(value);
+            Load task = loader(key, loader, check);
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                throw new RuntimeException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("loading " + key + " is interrupted", e);
             }
         }
 
+        private Future<Object> loadAsync(SessionKey<?> key, Supplier<?> loader, boolean check, Executor executor) {
+            Object value = read(key);
+            if (value != null) {
+                FutureTask<Object> done = new FutureTask<>(NOTHING, unwrap(value));
+                done.run();
+                return done;
+            }
+            Load task = loading.get(key);
+            if (task != null)
+                return task;
+            Load mine = newLoad(key, loader, check);
+            task = loading.putIfAbsent(key, mine);
+            if (task != null)
+                return task;
+            try {
+                executor.execute(() -> {
+                    try {
+                        mine.run();// it is no-op if a getOrLoad() caller has run it meanwhile
+                    } finally {
+                        loading.remove(key, mine);
+                    }
+                });
+            } catch (RuntimeException e) {// rejected by the executor
+                loading.remove(key, mine);
+                throw e;
+            }
+            return mine;
+        }
+
+        /**
+         * @return the loader of the key which is done on the calling thread, or the one which is running on another thread
+         */
+        private Load loader(SessionKey<?> key, Supplier<?> loader, boolean check) {
+            Load task = loading.get(key);
+            if (task == null) {
+                Load mine = newLoad(key, loader, check);
+                task = loading.putIfAbsent(key, mine);
+                if (task == null) {
+                    try {
+                        mine.run();
+                    } finally {
+                        loading.remove(key, mine);
+                    }
+                    return mine;
+                }
+            }
+            if (task.runner.get() == Thread.currentThread())
+                throw new IllegalStateException("loader of " + key + " asks for its own key");
+            task.run();// it is no-op if it is running already. A queued async load is done here instead of waiting for the executor
+            return task;
+        }
+
+        private Load newLoad(SessionKey<?> key, Supplier<?> loader, boolean check) {
+            return new Load(() -> {
+                Object value = read(key);// it may be loaded just before I took the turn
+                if (value != null)
+                    return unwrap(value);
+                value = loader.get();
+                if (check)
+                    key.check(value);
+                putValue(key, value);
+                return value;
+            });
+        }
+
         /**
          * Put a pair of key-value into the session. It remains in the session till you remove it or nonsticky subscriber gets called for this key
          *
          * @param key   any name you prefer
          * @param value target object
+         * @throws ClassCastException if the key is declared by SessionKey with another type
          */
         public void put(String key, Object value) {
-            session.put(key, value);
-            if (subscribers != null && subscribers.containsKey(key))
-                checkSignal(key);
+            SessionKey<?> k = SessionKey.named(key);
+            k.check(value);
+            putValue(k, value);
+        }
+
+        /**
+         * @see #put(String, Object)
+         */
+        public <T> void put(SessionKey<T> key, T value) {
+            putValue(key, value);
+        }
+
+        /**
+         * Put an int without boxing. It is boxed only if there is any subscriber for the key
+         *
+         * @see #put(String, Object)
+         */
+        public void put(SessionKey.IntKey key, int value) {
+            Object holder = read(key.key);
+            if (holder instanceof IntValue) {
+                ((IntValue) holder).value = value;
+                if (limits != null || session.get(key.key) != holder)// limits must know about the write, or it is removed meanwhile
+                    store(key.key, holder);
+                else
+                    changed(key.key);
+            } else {
+                store(key.key, new IntValue(value));
+            }
+            if (subscribers.containsKey(key.key))
+                checkSignal(key.key, value);
+        }
+
+        /**
+         * Put a long without boxing. It is boxed only if there is any subscriber for the key
+         *
+         * @see #put(String, Object)
+         */
+        public void put(SessionKey.LongKey key, long value) {
+            Object holder = read(key.key);
+            if (holder instanceof LongValue) {
+                ((LongValue) holder).value = value;
+                if (limits != null || session.get(key.key) != holder)// limits must know about the write, or it is removed meanwhile
+                    store(key.key, holder);
+                else
+                    changed(key.key);
+            } else {
+                store(key.key, new LongValue(value));
+            }
+            if (subscribers.containsKey(key.key))
+                checkSignal(key.key, value);
+        }
+
+        /**
+         * Put a boolean without boxing
+         *
+         * @see #put(String, Object)
+         */
+        public void put(SessionKey.BooleanKey key, boolean value) {
+            Object holder = read(key.key);
+            if (holder instanceof BooleanValue) {
+                ((BooleanValue) holder).value = value;
+                if (limits != null || session.get(key.key) != holder)// limits must know about the write, or it is removed meanwhile
+                    store(key.key, holder);
+                else
+                    changed(key.key);
+            } else {
+                store(key.key, new BooleanValue(value));
+            }
+            if (subscribers.containsKey(key.key))
+                checkSignal(key.key, value);
+        }
+
+        private void putValue(SessionKey<?> key, Object value) {
+            store(key, wrap(value));
+            if (subscribers.containsKey(key))
+                checkSignal(key, value);
         }
 
         /**
          * Remove all key-value pairs from the session, but session remains in the memory
          */
         public void empty() {
-            session.clear();
+            Limits l = limits;
+            if (l == null)
+                session.clear();
+            else
+                l.clear();
+            SessionStore st = store;
+            if (st != null)
+                st.cleared();
         }
 
         /**
@@ -198,96 +612,811 @@ public final class SessionRepository {
          * @param key
          */
         public void remove(String key) {
-            session.remove(key);
+            SessionKey<?> k = SessionKey.find(key);
+            if (k != null)
+                delete(k, null);
         }
 
         /**
-         * By calling this method, all public methods marked by Subscribe annotation, will be collected into subscriber list.
+         * @see #remove(String)
+         */
+        public void remove(SessionKey<?> key) {
+            delete(key, null);
+        }
+
+        /**
+         * remove the entry if it still holds data
+         */
+        private void removeIfSame(SessionKey<?> key, Object data) {
+            Object value = read(key);
+            if (value != null && same(unwrap(value), data))
+                delete(key, value);
+        }
+
+        /**
+         * Bound the session. Entries which are in the session already are counted from now on
          *
-         * @param listenerClass the object which contains listener methods. Usually it is "this"
+         * @param limits the limits or null to make the session unbounded again
+         */
+        public void setLimits(SessionLimits limits) {
+            Limits l = limits == null || (limits.maxEntries() == 0 && limits.ttl() == 0 && limits.byteBudget() == 0) ? null : new Limits(limits);
+            this.limits = l;
+            if (l != null)
+                l.sweep();
+        }
+
+        // All accesses go through these methods, so limits get informed when they are set
+
+        private Object read(SessionKey<?> key) {
+            Limits l = limits;
+            return l == null ? session.get(key) : l.get(key);
+        }
+
+        private void store(SessionKey<?> key, Object stored) {
+            Limits l = limits;
+            if (l == null)
+                session.put(key, stored);
+            else
+                l.put(key, stored);
+            changed(key);
+        }
+
+        private Object storeIfAbsent(SessionKey<?> key, Object stored) {
+            Limits l = limits;
+            Object old = l == null ? session.putIfAbsent(key, stored) : l.putIfAbsent(key, stored);
+            if (old == null)
+                changed(key);
+            return old;
+        }
+
+        /**
+         * @param stored remove the entry only if it still holds this object. Null removes it anyway
          */
-        public synchronized void register(Object listenerClass) {
-            register(listenerClass, listenerClass.getClass());
+        private void delete(SessionKey<?> key, Object stored) {
+            Limits l = limits;
+            if (l != null)
+                l.remove(key, stored);
+            else if (stored == null)
+                session.remove(key);
+            else
+                session.remove(key, stored);
+            changed(key);
         }
 
-        private void register(Object listenerClass, Class<?> listenerType) {
-            if (subscribers == null) {
-                subscribers = new HashMap<>();
+        /**
+         * let the file of a persistent session know about the change
+         */
+        private void changed(SessionKey<?> key) {
+            SessionStore st = store;
+            if (st != null)
+                st.changed(key);
+        }
+
+        /**
+         * Write pending changes of a persistent session to its file on the calling thread. They are written in background anyway, call it if you can not wait
+         */
+        public void sync() {
+            SessionStore st = store;
+            if (st != null)
+                st.flush();
+        }
+
+        /**
+         * Load the file of a persistent session on the calling thread. Entries which are in memory already win
+         *
+         * @param existing the session has been in use before it became persistent
+         */
+        private void attach(File file, boolean existing) {
+            SessionStore st = new SessionStore(file, pool, new SessionStore.Source() {
+                @Override
+                public Object current(SessionKey<?> key) {
+                    Object value = session.get(key);
+                    return value == null ? SessionStore.ABSENT : unwrap(value);
+                }
+
+                @Override
+                public Iterable<SessionKey<?>> keys() {
+                    return session.keySet();
+                }
+            });
+            st.restore((name, value) -> {
+                SessionKey<?> key = SessionKey.named(name);
+                try {
+                    key.check(value);
+                    storeIfAbsent(key, wrap(value));
+                } catch (ClassCastException e) {
+                    Utils.log(e, "restored session entry is dropped");
+                }
+            });
+            store = st;
+            if (existing) {
+                for (SessionKey<?> key : session.keySet())
+                    st.changed(key);
             }
-            //if may be a heavy job to find all subscribers and call them indeed, so let's run it in background thread
-            worker.execute(() -> {
-                // catch all methods
-                final Method[] methods = listenerType.getMethods();
-                for (int i = methods.length - 1; i >= 0; i--) {
-                    // search for Subscribe annotation
-                    if (methods[i].isAnnotationPresent(ListenFor.class)) {
-                        ListenFor subscribe = methods[i].getAnnotation(ListenFor.class);
-
-                        //extract if features
-                        Subscriber subInfo = new Subscriber(listenerClass, methods[i], subscribe.mainThread(), subscribe.sticky());
-
-                        //insert method in the list
-                        List<Subscriber> lst = subscribers.get(subscribe.keyword());
-                        if (lst == null) {
-                            lst = new ArrayList<>(3);
-                            subscribers.put(subscribe.keyword(), lst);
-                        } else {
-                            //remove old one
-                            for (int j = lst.size() - 1; j >= 0; j--) {
-                                if (lst.get(j).method == methods[i]) {
-                                    lst.remove(j);
-                                    break;
-                                }
-                            }
-                        }
+        }
+
+        /**
+         * @param discard delete the file too, otherwise pending changes are written and the file is kept to be restored later
+         */
+        private void detach(boolean discard) {
+            SessionStore st = store;
+            store = null;
+            if (st != null) {
+                if (discard)
+                    st.discard();
+                else
+                    st.close();
+            }
+        }
 
-                        lst.add(subInfo);
+        /**
+         * Keep the session while it is in use, even if there are more sessions than setMaxSessions() allows. Each pin() needs an unpin()
+         */
+        public void pin() {
+            pins.incrementAndGet();
+        }
+
+        /**
+         * @see #pin()
+         */
+        public void unpin() {
+            pins.decrementAndGet();
+        }
+
+        /**
+         * @return true if any listener is registered or being registered
+         */
+        private boolean hasListeners() {
+            synchronized (subscriberLock) {
+                return !subscribers.isEmpty() || !pendingRegistrations.isEmpty();
+            }
+        }
 
-                        //if data is available invoke the method
-                        if (session.containsKey(subscribe.keyword()))
-                            checkSignal(subscribe.keyword());
+        /**
+         * By calling this method, all public methods marked by Subscribe annotation, will be collected into subscriber list.
+         *
+         * @param listenerClass the object which contains listener methods. Usually it is "this"
+         */
+        public void register(Object listenerClass) {
+            Object token = new Object();
+            synchronized (subscriberLock) {
+                pendingRegistrations.put(listenerClass, token);
+            }
+            //if may be a heavy job to find all subscribers and call them indeed, so let's run it in background thread
+            registrationQueue.execute(() -> {
+                try {
+                    addSubscribers(listenerClass, token);
+                } finally {
+                    synchronized (subscriberLock) {
+                        if (pendingRegistrations.get(listenerClass) == token)
+                            pendingRegistrations.remove(listenerClass);
                     }
                 }
             });
         }
 
+        /**
+         * Attach listenerClass to subscriber methods of its class
+         *
+         * @param listenerClass the object which contains listener methods
+         * @param token         token of the register() call. If it is not the pending one any more, registration is cancelled
+         */
+        private void addSubscribers(Object listenerClass, Object token) {
+            SubscriberMethod[] descs = findSubscriberMethods(listenerClass.getClass());
+            // type checks are done once here instead of on each signal
+            for (SubscriberMethod desc : descs) {
+                Class<?> keyType = desc.key.getType();
+                if (keyType != null && desc.paramType != Void.class && !desc.paramType.isAssignableFrom(keyType))
+                    throw new RuntimeException(desc.name + " accepts " + desc.paramType.getName() + " while session key " + desc.key + " is declared as " + keyType.getName());
+            }
+            for (SubscriberMethod desc : descs) {
+                Subscriber subInfo = new Subscriber(listenerClass, desc);
+
+                //insert method in the list
+                synchronized (subscriberLock) {
+                    if (pendingRegistrations.get(listenerClass) != token)// unregistered or registered again before I got here
+                        return;
+                    subscribers.put(desc.key, add(subscribers.get(desc.key), subInfo));
+                }
+
+                //if data is available invoke the method
+                if (read(desc.key) != null)
+                    subInfo.run(desc.key, CURRENT);
+            }
+        }
+
+        /**
+         * @return a copy of lst with s at the end. Old subscription of the same method by the same instance is dropped, other instances keep theirs
+         */
+        private Subscriber[] add(Subscriber[] lst, Subscriber s) {
+            if (lst == null)
+                return new Subscriber[]{s};
+            for (int j = 0; j < lst.length; j++) {
+                if (lst[j].desc == s.desc && lst[j].target == s.target) {
+                    Subscriber[] copy = new Subscriber[lst.length];
+                    System.arraycopy(lst, 0, copy, 0, j);
+                    System.arraycopy(lst, j + 1, copy, j, lst.length - j - 1);
+                    copy[lst.length - 1] = s;
+                    return copy;
+                }
+            }
+            Subscriber[] copy = new Subscriber[lst.length + 1];
+            System.arraycopy(lst, 0, copy, 0, lst.length);
+            copy[lst.length] = s;
+            return copy;
+        }
+
+        /**
+         * @param name dispatcher name
+         * @return serial queue of this session on the dispatcher. All signals which go through it keep their order
+         */
+        private Executor getDispatcherQueue(String name) {
+            Executor queue = dispatcherQueues.get(name);
+            if (queue == null) {
+                Executor dispatcher = dispatchers.get(name);
+                queue = new SerialExecutor(dispatcher == null ? pool : dispatcher);
+                Executor old = dispatcherQueues.putIfAbsent(name, queue);
+                if (old != null)
+                    queue = old;
+            }
+            return queue;
+        }
+
         /**
          * You must call this method to exclude your class from subscribers list
          *
          * @param listenerClass the class which contains @Subscribe annotation
          */
-        public synchronized void unregister(Object listenerClass) {
-            if (subscribers != null) {
+        public void unregister(Object listenerClass) {
+            synchronized (subscriberLock) {
+                pendingRegistrations.remove(listenerClass);
                 //remove all subscribed listener methods from the list
-                Iterator<String> itr = subscribers.keySet().iterator();
-                while (itr.hasNext()) {
-                    List<Subscriber> lst = subscribers.get(itr.next());
-                    for (int i = lst.size() - 1; i >= 0; i--) {
-                        if (lst.get(i).target == listenerClass)
-                            lst.remove(i);
+                for (Map.Entry<SessionKey<?>, Subscriber[]> e : subscribers.entrySet()) {
+                    Subscriber[] lst = e.getValue();
+                    int n = 0;
+                    for (Subscriber s : lst) {
+                        if (s.target != listenerClass)
+                            n++;
+                    }
+                    if (n == lst.length)
+                        continue;
+                    if (n == 0) {
+                        subscribers.remove(e.getKey());
+                        continue;
+                    }
+                    Subscriber[] copy = new Subscriber[n];
+                    n = 0;
+                    for (Subscriber s : lst) {
+                        if (s.target != listenerClass)
+                            copy[n++] = s;
+                    }
+                    e.setValue(copy);
+                }
+            }
+        }
+
+        /**
+         * Keeps track of entries of a bounded session. While it is set, the session map is written only under its lock, so both stay in sync
+         */
+        private final class Limits {
+            private final int maxEntries;
+            private final long ttl;
+            private final long byteBudget;
+            private final SessionLimits.SizeOf sizeOf;
+            private final EvictionListener listener;
+
+            // entries in access order, guarded by this
+            private final LinkedHashMap<SessionKey<?>, EntryInfo> entries = new LinkedHashMap<>(16, 0.75f, true);
+            private long bytes;
+            private long nextSweep;
+
+            Limits(SessionLimits limits) {
+                maxEntries = limits.maxEntries();
+                ttl = limits.ttl();
+                byteBudget = limits.byteBudget();
+                sizeOf = limits.sizeOf();
+                listener = limits.listener();
+                synchronized (this) {
+                    long now = now();
+                    for (Map.Entry<SessionKey<?>, Object> e : session.entrySet())
+                        track(e.getKey(), e.getValue(), now);
+                }
+            }
+
+            Object get(SessionKey<?> key) {
+                ArrayList<Object> evicted = null;
+                Object value;
+                synchronized (this) {
+                    EntryInfo info = entries.get(key);// moves it to the tail
+                    if (info != null && info.expiresAt <= now()) {
+                        evicted = new ArrayList<>(3);
+                        evict(key, info, EvictionListener.Reason.EXPIRED, evicted);
+                    }
+                    value = session.get(key);
+                }
+                notifyEvicted(evicted);
+                return value;
+            }
+
+            void put(SessionKey<?> key, Object stored) {
+                ArrayList<Object> evicted = new ArrayList<>(0);
+                synchronized (this) {
+                    session.put(key, stored);
+                    long now = now();
+                    track(key, stored, now);
+                    trim(now, evicted);
+                }
+                notifyEvicted(evicted);
+            }
+
+            Object putIfAbsent(SessionKey<?> key, Object stored) {
+                ArrayList<Object> evicted = new ArrayList<>(0);
+                Object old;
+                synchronized (this) {
+                    long now = now();
+                    EntryInfo info = entries.get(key);
+                    if (info != null && info.expiresAt <= now)
+                        evict(key, info, EvictionListener.Reason.EXPIRED, evicted);
+                    old = session.putIfAbsent(key, stored);
+                    if (old == null) {
+                        track(key, stored, now);
+                        trim(now, evicted);
+                    }
+                }
+                notifyEvicted(evicted);
+                return old;
+            }
+
+            synchronized void remove(SessionKey<?> key, Object stored) {
+                if (stored == null ? session.remove(key) != null : session.remove(key, stored))
+                    untrack(key);
+            }
+
+            synchronized void clear() {
+                session.clear();
+                entries.clear();
+                bytes = 0;
+            }
+
+            /**
+             * drop expired entries now
+             */
+            void sweep() {
+                ArrayList<Object> evicted = new ArrayList<>(0);
+                synchronized (this) {
+                    nextSweep = 0;
+                    trim(now(), evicted);
+                }
+                notifyEvicted(evicted);
+            }
+
+            private void track(SessionKey<?> key, Object stored, long now) {
+                EntryInfo old = entries.remove(key);
+                if (old != null)
+                    bytes -= old.bytes;
+                EntryInfo info = new EntryInfo();
+                info.expiresAt = ttl > 0 ? now + ttl : Long.MAX_VALUE;
+                info.bytes = byteBudget > 0 ? ENTRY_OVERHEAD + sizeOf.sizeOf(unwrap(stored)) : 0;
+                entries.put(key, info);
+                bytes += info.bytes;
+            }
+
+            private void untrack(SessionKey<?> key) {
+                EntryInfo info = entries.remove(key);
+                if (info != null)
+                    bytes -= info.bytes;
+            }
+
+            /**
+             * drop expired entries (at most every quarter of ttl) and then least recently used ones while the session is over its bounds
+             */
+            private void trim(long now, ArrayList<Object> evicted) {
+                if (ttl > 0 && now >= nextSweep) {
+                    nextSweep = now + Math.max(ttl / 4, 1);
+                    Iterator<Map.Entry<SessionKey<?>, EntryInfo>> it = entries.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<SessionKey<?>, EntryInfo> e = it.next();
+                        if (e.getValue().expiresAt <= now) {
+                            it.remove();
+                            bytes -= e.getValue().bytes;
+                            evicted.add(e.getKey());
+                            evicted.add(unwrap(session.remove(e.getKey())));
+                            evicted.add(EvictionListener.Reason.EXPIRED);
+                        }
                     }
                 }
+                while (maxEntries > 0 && entries.size() > maxEntries)
+                    evictEldest(EvictionListener.Reason.MAX_ENTRIES, evicted);
+                while (byteBudget > 0 && bytes > byteBudget && !entries.isEmpty())
+                    evictEldest(EvictionListener.Reason.BYTE_BUDGET, evicted);
+            }
+
+            private void evictEldest(EvictionListener.Reason reason, ArrayList<Object> evicted) {
+                Map.Entry<SessionKey<?>, EntryInfo> eldest = entries.entrySet().iterator().next();
+                evict(eldest.getKey(), eldest.getValue(), reason, evicted);
+            }
+
+            private void evict(SessionKey<?> key, EntryInfo info, EvictionListener.Reason reason, ArrayList<Object> evicted) {
+                entries.remove(key);
+                bytes -= info.bytes;
+                evicted.add(key);
+                evicted.add(unwrap(session.remove(key)));
+                evicted.add(reason);
+            }
+
+            /**
+             * @param evicted key, value and reason triples
+             */
+            private void notifyEvicted(ArrayList<Object> evicted) {
+                if (evicted == null)
+                    return;
+                for (int i = 0; i < evicted.size(); i += 3)
+                    changed((SessionKey<?>) evicted.get(i));
+                if (listener == null)
+                    return;
+                for (int i = 0; i < evicted.size(); i += 3)
+                    listener.onEvicted(Session.this, evicted.get(i).toString(), evicted.get(i + 1), (EvictionListener.Reason) evicted.get(i + 2));
             }
         }
 
         /**
          * notify listeners
          *
-         * @param keyword entry name
+         * @param key   entry key
+         * @param value the value which is put. It is passed along, as the entry may be replaced or removed by other threads meanwhile
+         */
+        private void checkSignal(SessionKey<?> key, Object value) {
+            Subscriber[] subscriberList = subscribers.get(key);
+            if (subscriberList != null) {
+                for (Subscriber subscriber : subscriberList)
+                    subscriber.run(key, value);
+            }
+        }
+    }
+
+    /**
+     * A method marked by @ListenFor. It is extracted once per class and shared by all sessions and instances.<br/>
+     * It is called directly through the generated table if the compiler module has generated one for the class, otherwise via reflection
+     */
+    private static final class SubscriberMethod {
+        // method name for logs
+        private final String name;
+
+        // listener method, null if a generated table is available
+        private final Method method;
+
+        // generated dispatch table of the listener class and index of this method in it
+        private final GeneratedSubscribers generated;
+        private final int position;
+
+        // the key which method listens to
+        private final SessionKey<?> key;
+
+        // invoke method in main thread if this field is true
+        private final boolean mainThread;
+
+        // clear target record if this field is set true
+        private final boolean sticky;
+
+        // deliver just the latest queued main thread signal
+        private final boolean latestOnly;
+
+        // dispatcher name for background listeners
+        private final String dispatcher;
+
+        // method parameter's type
+        private final Class<?> paramType;
+
+        SubscriberMethod(Method method, ListenFor listenFor) {
+            this.name = method.getName();
+            this.method = method;
+            this.generated = null;
+            this.position = -1;
+            this.key = SessionKey.interned(listenFor.keyword());
+            this.mainThread = listenFor.mainThread();
+            this.sticky = listenFor.sticky();
+            this.latestOnly = listenFor.latestOnly();
+            this.dispatcher = listenFor.dispatcher();
+            this.method.setAccessible(true);
+            Class<?>[] types = method.getParameterTypes();
+            if (types.length == 0) {
+                this.paramType = Void.class;
+            } else if (types.length == 1) {
+                this.paramType = SessionKey.box(types[0]);// Method.invoke() unboxes it
+            } else {
+                throw new RuntimeException("number of parameters for " + method.getName() + " can not be greater than 1");
+            }
+        }
+
+        SubscriberMethod(GeneratedSubscribers generated, int position) {
+            this.name = generated.getMethodName(position);
+            this.method = null;
+            this.generated = generated;
+            this.position = position;
+            this.key = SessionKey.interned(generated.getKeyword(position));
+            this.mainThread = generated.isMainThread(position);
+            this.sticky = generated.isSticky(position);
+            this.latestOnly = generated.isLatestOnly(position);
+            this.dispatcher = generated.getDispatcher(position);
+            this.paramType = generated.getParamType(position);
+        }
+
+        void call(Object target, Object arg) throws InvocationTargetException, IllegalAccessException {
+            if (generated != null) {
+                generated.dispatch(position, target, arg);
+            } else if (paramType == Void.class) {
+                method.invoke(target);
+            } else {
+                method.invoke(target, arg);
+            }
+        }
+    }
+
+    /**
+     * Main thread signals of all sessions are queued here and delivered by a single task per looper turn, instead of posting a runnable per subscriber per signal.<br/>
+     * Signals are delivered in the order they were put. A latestOnly subscriber keeps its place in the queue but gets just the latest value
+     */
+    private static final class MainThreadQueue implements Runnable {
+        // pending signals, guarded by this
+        private ArrayList<Session.Subscriber> subscribers = new ArrayList<>();
+        private ArrayList<SessionKey<?>> keys = new ArrayList<>();
+        private ArrayList<Object> values = new ArrayList<>();
+        // latestOnly subscriber -> its position in the pending lists
+        private final IdentityHashMap<Session.Subscriber, Integer> latestOnlyPositions = new IdentityHashMap<>();
+        private boolean scheduled;
+        // runs the drain task, null for the Handler of the main looper
+        private volatile Executor executor;
+
+        // the lists which are being delivered on the main thread. They are swapped with pending ones on each drain
+        private ArrayList<Session.Subscriber> drainingSubscribers = new ArrayList<>();
+        private ArrayList<SessionKey<?>> drainingKeys = new ArrayList<>();
+        private ArrayList<Object> drainingValues = new ArrayList<>();
+
+        void post(Session.Subscriber subscriber, SessionKey<?> key, Object data) {
+            synchronized (this) {
+                if (subscriber.desc.latestOnly) {
+                    Integer position = latestOnlyPositions.get(subscriber);
+                    if (position != null) {
+                        values.set(position, data);
+                        return;
+                    }
+                    latestOnlyPositions.put(subscriber, subscribers.size());
+                }
+                subscribers.add(subscriber);
+                keys.add(key);
+                values.add(data);
+                if (scheduled)
+                    return;
+                scheduled = true;
+            }
+            Executor e = executor;
+            if (e != null)
+                e.execute(this);
+            else
+                BaseModule.feather.instance(Handler.class).post(this);
+        }
+
+        /**
+         * drain the queue. Signals which are put meanwhile are delivered on the next turn
          */
-        private synchronized void checkSignal(String keyword) {
-            if (subscribers != null && subscribers.size() > 0) {
-                List<Subscriber> subscriberList = subscribers.get(keyword);
-                if (subscriberList != null)
-                    for (Subscriber subscriber : subscriberList)
-                        subscriber.run(keyword, session.get(keyword));
+        @Override
+        public void run() {
+            synchronized (this) {
+                scheduled = false;
+                latestOnlyPositions.clear();
+                ArrayList<Session.Subscriber> s = drainingSubscribers;
+                drainingSubscribers = subscribers;
+                subscribers = s;
+                ArrayList<SessionKey<?>> k = drainingKeys;
+                drainingKeys = keys;
+                keys = k;
+                ArrayList<Object> v = drainingValues;
+                drainingValues = values;
+                values = v;
+            }
+            try {
+                for (int i = 0; i < drainingSubscribers.size(); i++) {
+                    try {
+                        drainingSubscribers.get(i).invoke(drainingKeys.get(i), drainingValues.get(i));
+                    } catch (RuntimeException e) {// the rest of the batch must still be delivered
+                        Utils.log(e, "Oops! I couldn't invoke " + drainingSubscribers.get(i).desc.name);
+                    }
+                }
+            } finally {
+                drainingSubscribers.clear();
+                drainingKeys.clear();
+                drainingValues.clear();
+            }
+        }
+    }
+
+    private final static MainThreadQueue mainThreadQueue = new MainThreadQueue();
+
+    /**
+     * Deliver main thread signals by the given executor instead of the main looper. It lets JVM tests run the queue by hand
+     *
+     * @param executor runs the task which delivers queued signals, null to go back to the main looper
+     */
+    static void setMainThreadExecutor(Executor executor) {
+        mainThreadQueue.executor = executor;
+    }
+
+    // name suffix of the tables generated by the compiler module
+    private final static String GENERATED_SUFFIX = "_SessionSubscribers";
+
+    // listener class -> its subscriber methods. Classes are scanned once in process lifetime
+    private final static ConcurrentHashMap<Class<?>, SubscriberMethod[]> subscriberMethods = new ConcurrentHashMap<>();
+
+    /**
+     * @param cls listener class
+     * @return subscriber methods of cls, in the order they used to be registered
+     */
+    private static SubscriberMethod[] findSubscriberMethods(Class<?> cls) {
+        SubscriberMethod[] lst = subscriberMethods.get(cls);
+        if (lst == null) {
+            GeneratedSubscribers generated = findGeneratedSubscribers(cls);
+            if (generated != null) {
+                lst = new SubscriberMethod[generated.getCount()];
+                for (int i = 0; i < lst.length; i++)
+                    lst[i] = new SubscriberMethod(generated, i);
+            } else {
+                // catch all methods and search for ListenFor annotation
+                final Method[] methods = cls.getMethods();
+                List<SubscriberMethod> found = new ArrayList<>();
+                for (int i = methods.length - 1; i >= 0; i--) {
+                    ListenFor listenFor = methods[i].getAnnotation(ListenFor.class);
+                    if (listenFor != null)
+                        found.add(new SubscriberMethod(methods[i], listenFor));
+                }
+                lst = found.toArray(new SubscriberMethod[found.size()]);
             }
+            SubscriberMethod[] old = subscriberMethods.putIfAbsent(cls, lst);
+            if (old != null)
+                lst = old;
+        }
+        return lst;
+    }
+
+    /**
+     * @param cls listener class
+     * @return generated table or null if annotation processor has not generated any for this class
+     */
+    private static GeneratedSubscribers findGeneratedSubscribers(Class<?> cls) {
+        try {
+            Class<?> tableCls = Class.forName(cls.getName() + GENERATED_SUFFIX, true, cls.getClassLoader());
+            if (GeneratedSubscribers.class.isAssignableFrom(tableCls))
+                return (GeneratedSubscribers) tableCls.newInstance();
+        } catch (ClassNotFoundException ignored) {
+            // annotation processor is not hired for this class, reflection will do the job
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("generated subscribers of " + cls.getName() + " are not accessible", e);
+        } catch (InstantiationException e) {
+            throw new RuntimeException("generated subscribers of " + cls.getName() + " are not instantiable", e);
+        }
+        return null;
+    }
+
+    // rough memory of a map entry and its bookkeeping
+    private final static long ENTRY_OVERHEAD = 64;
+
+    /**
+     * bookkeeping of an entry of a bounded session
+     */
+    private static final class EntryInfo {
+        long expiresAt;
+        long bytes;
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1000000;
+    }
+
+    // ConcurrentHashMap does not accept null, so null values are kept as this object
+    private final static Object NULL = new Object();
+
+    // signal data which means "the value of the entry when the signal is delivered". Used for the signal of registration time
+    private final static Object CURRENT = new Object();
+
+    private static Object wrap(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    private static Object unwrap(Object value) {
+        if (value == NULL)
+            return null;
+        if (value instanceof Unboxed)
+            return ((Unboxed) value).boxed();
+        return value;
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Values of primitive keys are kept in these holders and updated in place, so putting them boxes nothing
+     */
+    private static abstract class Unboxed {
+        abstract Object boxed();
+    }
+
+    private static final class IntValue extends Unboxed {
+        volatile int value;
+
+        IntValue(int value) {
+            this.value = value;
+        }
+
+        @Override
+        Object boxed() {
+            return value;
+        }
+    }
+
+    private static final class LongValue extends Unboxed {
+        volatile long value;
+
+        LongValue(long value) {
+            this.value = value;
+        }
+
+        @Override
+        Object boxed() {
+            return value;
+        }
+    }
+
+    private static final class BooleanValue extends Unboxed {
+        volatile boolean value;
+
+        BooleanValue(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        Object boxed() {
+            return value;
         }
     }
 
     private SessionRepository() {
     }
 
+    /**
+     * Set number of threads which run registrations and listeners of named dispatchers. It may be called at any time
+     *
+     * @param parallelism number of threads, at least 1. Default is {@value #DEFAULT_PARALLELISM}
+     */
+    public static void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        synchronized (pool) {
+            if (parallelism > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(parallelism);
+                pool.setCorePoolSize(parallelism);
+            } else {
+                pool.setCorePoolSize(parallelism);
+                pool.setMaximumPoolSize(parallelism);
+            }
+        }
+    }
+
+    /**
+     * Hire your own executor for listeners which are marked by @ListenFor(dispatcher = name). Each session still gets a serial queue on it, so signals keep their order.<br/>
+     * Dispatchers without an executor run on the shared pool. Set it at startup, as sessions which have already used the name keep their old executor
+     *
+     * @param name     dispatcher name
+     * @param executor target executor or null to go back to the shared pool
+     */
+    public static void setDispatcher(String name, Executor executor) {
+        if (name.isEmpty())
+            throw new IllegalArgumentException("empty name is reserved for the putting thread");
+        if (executor == null)
+            dispatchers.remove(name);
+        else
+            dispatchers.put(name, executor);
+    }
+
     /**
      * There is a session provided by default. You may use it or create new session by calling getSession() method.
      * <p>
@@ -305,19 +1434,130 @@ public final class SessionRepository {
      * <p>
      * <strong>Session name is unique.</strong>
      * </p>
+     * If the session is persistent and it is caught for the first time, its file is read on the calling thread. See setPersistent()
      *
      * @param sessionName any name you prefer
      * @return a session instance
      */
-    public synchronized static Session getSession(String sessionName) {
+    public static Session getSession(String sessionName) {
         Session session = repository.get(sessionName);
+        boolean created = false;
         if (session == null) {
             session = new Session(sessionName);
-            repository.put(sessionName, session);
+            if (persistentSessions.contains(sessionName))
+                session.attach(getSessionFile(sessionName), false);
+            Session old = repository.putIfAbsent(sessionName, session);
+            if (old != null)
+                session = old;
+            else
+                created = true;
         }
+        session.lastAccess = accessCounter.incrementAndGet();
+        if (created && maxSessions > 0)
+            trimSessions(session);
         return session;
     }
 
+    /**
+     * Unlike getSession(), it creates nothing
+     *
+     * @param sessionName session name
+     * @return the session or null if it is not created yet or it is removed
+     */
+    public static Session findSession(String sessionName) {
+        return repository.get(sessionName);
+    }
+
+    /**
+     * Keep a session in a file, so it survives process death. The file is written in background whenever the session changes, and it is read when the session is caught by getSession() for the first time.
+     * So sessions which are not used cost nothing at startup.<br/>
+     * Call it before getSession(), e.g. in Application.onCreate(). Only null, String, primitive, byte[] and Serializable values are persisted.<br/>
+     * Reading the file, java deserialization included, runs on the thread which catches the session first, or on the calling thread if the session is alive already.
+     * So for a big session, catch it by getSession() on a background thread before UI work needs it, e.g. before the first screen which is bound to it is started.
+     * Removing the session deletes its file, while a session which is dropped by setMaxSessions() is restored on its next getSession()
+     *
+     * @param sessionName target session
+     * @param persistent  pass in false to keep the session in memory only and delete its file
+     */
+    public static void setPersistent(String sessionName, boolean persistent) {
+        Session session = repository.get(sessionName);
+        if (persistent) {
+            if (persistentSessions.add(sessionName) && session != null)
+                session.attach(getSessionFile(sessionName), true);
+        } else if (persistentSessions.remove(sessionName)) {
+            if (session != null)
+                session.detach(true);
+            getSessionFile(sessionName).delete();
+        }
+    }
+
+    /**
+     * @param dir where persistent sessions are kept. Default is "sessions" in the files directory of the application
+     */
+    public static void setPersistenceDir(File dir) {
+        persistenceDir = dir;
+    }
+
+    private static File getSessionFile(String sessionName) {
+        File dir = persistenceDir;
+        if (dir == null) {
+            Context context = BaseModule.getAppContext();
+            if (context == null)
+                throw new RuntimeException("BaseModule is not initialized. Call SessionRepository.setPersistenceDir() first");
+            dir = new File(context.getFilesDir(), "sessions");
+        }
+        try {
+            return new File(dir, URLEncoder.encode(sessionName, "UTF-8") + ".session");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Limit number of alive sessions. When a new session is created over the limit, the session which getSession() has returned least recently is removed.<br/>
+     * The default session, pinned sessions and sessions which have any registered listener are never removed. Whoever keeps a removed session object may still use it, but it is not reachable through getSession() any more
+     *
+     * @param max       maximum number of sessions or 0 for no limit
+     * @param onEvicted gets notified of removed sessions. It may be null
+     */
+    public static void setMaxSessions(int max, Consumer<Session> onEvicted) {
+        if (max < 0)
+            throw new IllegalArgumentException("max can not be negative");
+        sessionEvictionListener = onEvicted;
+        maxSessions = max;
+        if (max > 0)
+            trimSessions(null);
+    }
+
+    /**
+     * remove least recently used sessions while there are too many of them
+     *
+     * @param keep the session which must stay
+     */
+    private static void trimSessions(Session keep) {
+        ArrayList<Session> evicted = new ArrayList<>(1);
+        synchronized (repository) {
+            while (maxSessions > 0 && repository.size() > maxSessions) {
+                Session eldest = null;
+                for (Session s : repository.values()) {
+                    if (s != keep && !s.myName.equals(DEFAULT_SESSION_NAME) && s.pins.get() == 0 && !s.hasListeners() && (eldest == null || s.lastAccess < eldest.lastAccess))
+                        eldest = s;
+                }
+                if (eldest == null)
+                    break;
+                if (repository.remove(eldest.myName, eldest))
+                    evicted.add(eldest);
+            }
+        }
+        for (Session s : evicted)
+            s.detach(false);
+        Consumer<Session> listener = sessionEvictionListener;
+        if (listener != null) {
+            for (Session s : evicted)
+                listener.accept(s);
+        }
+    }
+
     /**
      * Remove a session by calling this method. When a session removes, all its data will be removed and subscribed methods can not get invoked any more.
      * <br>
@@ -328,23 +1568,28 @@ public final class SessionRepository {
      *
      * @param sessionName a unique name for session
      */
-    public synchronized static void removeSession(String sessionName) {
-        repository.remove(sessionName);
+    public static void removeSession(String sessionName) {
+        Session session = repository.remove(sessionName);
+        if (session != null)
+            session.detach(true);
+        else if (persistentSessions.contains(sessionName))
+            getSessionFile(sessionName).delete();
     }
 
     /**
      * @param session target session
      * @see #removeSession(String)
      */
-    public synchronized static void removeSession(Session session) {
+    public static void removeSession(Session session) {
         removeSession(session.myName);
     }
 
     /**
      * clear repository fully
      */
-    public synchronized static void clearAllSessions() {
-        repository.clear();
+    public static void clearAllSessions() {
+        for (String name : repository.keySet())
+            removeSession(name);
         removeSession(SessionRepository.getDefaultSession());
     }
 }
\ No newline at end of file
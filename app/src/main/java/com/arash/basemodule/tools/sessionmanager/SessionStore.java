@@ -0,0 +1,465 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import com.arash.basemodule.contracts.BiConsumer;
+import com.arash.basemodule.tools.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a persistent session in an append-only file, so it survives process death.<br/>
+ * The putting thread only marks the changed key. A background task writes the latest value of marked keys later, so many puts of a key cost one record.
+ * If a value can not be written for now, e.g. another thread changes it while it is serialized, the old record is kept and the key is written again on the next flush.
+ * Each record is framed by its length, so a record which is torn by process death is dropped on restore.
+ * The file is rewritten from the session when most of its records are stale.<br/>
+ * null, String, boxed primitives and byte[] are written compactly. Other Serializable values use java serialization and the rest are not persisted
+ */
+final class SessionStore {
+    /**
+     * Gives the current state of the session
+     */
+    interface Source {
+        /**
+         * @return the value of the key or ABSENT if there is no such entry
+         */
+        Object current(SessionKey<?> key);
+
+        Iterable<SessionKey<?>> keys();
+    }
+
+    static final Object ABSENT = new Object();
+
+    private static final int MAGIC = 0x53455353;
+    private static final byte VERSION = 1;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_CLEAR = 3;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_FLOAT = 6;
+    private static final byte TYPE_BYTES = 7;
+    private static final byte TYPE_SERIALIZED = 8;
+
+    // the file is compacted when it has this many stale records more than live ones
+    private static final int COMPACT_SLACK = 64;
+
+    private final File file;
+    private final Executor executor;
+    private final Source source;
+
+    // keys which are changed since the last flush
+    private final ConcurrentHashMap<SessionKey<?>, Boolean> dirty = new ConcurrentHashMap<>();
+    private volatile boolean cleared;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            scheduled.set(false);
+            flush();
+        }
+    };
+
+    // guarded by this
+    private DataOutputStream out;
+    private final HashSet<String> persisted = new HashSet<>();// keys which have a value in the file
+    private int records;// number of records in the file
+    private boolean closed;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+
+    SessionStore(File file, Executor executor, Source source) {
+        this.file = file;
+        this.executor = executor;
+        this.source = source;
+    }
+
+    /**
+     * Read the file. It must be called before any change is marked
+     *
+     * @param target receives each key and its restored value
+     */
+    synchronized void restore(BiConsumer<String, Object> target) {
+        if (!file.exists())
+            return;
+        Map<String, Object> values = new LinkedHashMap<>();
+        long good = 0;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                Utils.log("unknown session file is dropped: " + file);
+            } else {
+                good = 5;
+                long length = file.length();
+                byte[] body = new byte[256];
+                while (true) {
+                    int size;
+                    try {
+                        size = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (size <= 0 || good + 4 + size > length)
+                        break;// torn by process death
+                    if (body.length < size)
+                        body = new byte[size];
+                    in.readFully(body, 0, size);
+                    good += 4 + size;
+                    records++;
+                    replay(new DataInputStream(new ByteArrayInputStream(body, 0, size)), values);
+                }
+            }
+        } catch (IOException e) {
+            Utils.log(e, "session file is not readable: " + file);
+        } finally {
+            close(in);
+        }
+        truncate(good);
+        persisted.addAll(values.keySet());
+        for (Map.Entry<String, Object> e : values.entrySet())
+            target.accept(e.getKey(), e.getValue());
+    }
+
+    private void replay(DataInputStream in, Map<String, Object> values) throws IOException {
+        byte op = in.readByte();
+        if (op == OP_CLEAR) {
+            values.clear();
+            return;
+        }
+        String key = in.readUTF();
+        values.remove(key);// keep the order of last writes
+        if (op == OP_PUT) {
+            try {
+                values.put(key, readValue(in));
+            } catch (ClassNotFoundException e) {
+                Utils.log(e, "session entry " + key + " is dropped");
+            } catch (IOException e) {
+                Utils.log(e, "session entry " + key + " is dropped");
+            }
+        }
+    }
+
+    private void truncate(long length) {
+        if (file.length() == length)
+            return;
+        if (length == 0) {
+            file.delete();
+            return;
+        }
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            raf.setLength(length);
+        } catch (IOException e) {
+            Utils.log(e, "session file is not writable: " + file);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Mark the key to be written in background
+     */
+    void changed(SessionKey<?> key) {
+        dirty.put(key, Boolean.TRUE);
+        schedule();
+    }
+
+    /**
+     * Mark all entries as removed
+     */
+    void cleared() {
+        cleared = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true))
+            executor.execute(flushTask);
+    }
+
+    /**
+     * Write marked keys now
+     */
+    synchronized void flush() {
+        if (closed || (!cleared && dirty.isEmpty()))
+            return;
+        try {
+            if (out == null)
+                out = open();
+            if (cleared) {
+                cleared = false;
+                recordOut.writeByte(OP_CLEAR);
+                write();
+                persisted.clear();
+            }
+            boolean retry = false;
+            for (SessionKey<?> key : dirty.keySet()) {
+                dirty.remove(key);// a put after this marks it again
+                if (!writeEntry(key)) {
+                    dirty.putIfAbsent(key, Boolean.TRUE);// the old record stays till it is written
+                    retry = true;
+                }
+            }
+            out.flush();// it is in the OS now, so it survives process death
+            if (!retry && records > 2 * persisted.size() + COMPACT_SLACK)
+                compact();
+        } catch (IOException e) {
+            Utils.log(e, "session file is not writable: " + file);
+            close(out);
+            out = null;
+        }
+    }
+
+    /**
+     * Rewrite the file by the current entries
+     */
+    private void compact() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream current = out;
+        HashSet<String> currentPersisted = new HashSet<>(persisted);
+        int currentRecords = records;
+        boolean done = true;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            persisted.clear();
+            records = 0;
+            for (SessionKey<?> key : source.keys()) {
+                if (!writeEntry(key)) {
+                    done = false;// a value which can not be written now must not lose its old record, so the old file is kept
+                    break;
+                }
+            }
+            out.close();
+        } catch (IOException e) {
+            close(current);
+            throw e;
+        }
+        if (!done) {
+            tmp.delete();
+            out = current;
+            persisted.clear();
+            persisted.addAll(currentPersisted);
+            records = currentRecords;
+            return;
+        }
+        close(current);
+        out = null;
+        if (!tmp.renameTo(file))
+            throw new IOException("can not replace " + file);
+        out = open();
+    }
+
+    /**
+     * write the current value of the key, or remove it from the file if it has no persistable value
+     *
+     * @return false if the value can not be written for now. Nothing is written then
+     */
+    private boolean writeEntry(SessionKey<?> key) throws IOException {
+        String name = key.getName();
+        Object value = source.current(key);
+        recordOut.writeByte(OP_PUT);
+        recordOut.writeUTF(name);
+        int result;
+        if (value == ABSENT) {
+            result = SKIPPED;
+        } else {
+            result = writeValue(value);
+        }
+        if (result == FAILED) {
+            record.reset();
+            return false;
+        }
+        if (result == WRITTEN) {
+            persisted.add(name);
+        } else {
+            record.reset();
+            if (!persisted.remove(name))
+                return true;
+            recordOut.writeByte(OP_REMOVE);
+            recordOut.writeUTF(name);
+        }
+        write();
+        return true;
+    }
+
+    private void write() throws IOException {
+        out.writeInt(record.size());
+        record.writeTo(out);
+        record.reset();
+        records++;
+    }
+
+    private DataOutputStream open() throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs())
+            throw new IOException("can not create " + dir);
+        boolean empty = file.length() == 0;
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (empty) {
+            stream.writeInt(MAGIC);
+            stream.writeByte(VERSION);
+            records = 0;
+        }
+        return stream;
+    }
+
+    // results of writeValue()
+    private static final int WRITTEN = 0;
+    private static final int SKIPPED = 1;// it can not be persisted at all
+    private static final int FAILED = 2;// it may be persisted later. e.g. it is changed by another thread while it is serialized
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream stream = new ObjectOutputStream(bytes);
+        stream.writeObject(value);
+        stream.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return WRITTEN, SKIPPED or FAILED
+     */
+    private int writeValue(Object value) throws IOException {
+        if (value == null) {
+            recordOut.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes("UTF-8");
+            recordOut.writeByte(TYPE_STRING);
+            recordOut.writeInt(bytes.length);
+            recordOut.write(bytes);
+        } else if (value instanceof Integer) {
+            recordOut.writeByte(TYPE_INT);
+            recordOut.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            recordOut.writeByte(TYPE_LONG);
+            recordOut.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            recordOut.writeByte(TYPE_BOOLEAN);
+            recordOut.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            recordOut.writeByte(TYPE_DOUBLE);
+            recordOut.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            recordOut.writeByte(TYPE_FLOAT);
+            recordOut.writeFloat((Float) value);
+        } else if (value instanceof byte[]) {
+            recordOut.writeByte(TYPE_BYTES);
+            recordOut.writeInt(((byte[]) value).length);
+            recordOut.write((byte[]) value);
+        } else if (value instanceof Serializable) {
+            byte[] bytes;
+            try {
+                bytes = serialize(value);
+            } catch (IOException e) {
+                Utils.log(e, "session value is not persisted: " + value.getClass().getName());
+                return SKIPPED;
+            } catch (RuntimeException e) {// it is changed by another thread meanwhile
+                Utils.log(e, "session value is not written for now: " + value.getClass().getName());
+                return FAILED;
+            }
+            recordOut.writeByte(TYPE_SERIALIZED);
+            recordOut.writeInt(bytes.length);
+            recordOut.write(bytes);
+        } else {
+            return SKIPPED;
+        }
+        return WRITTEN;
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return new String(readBytes(in), "UTF-8");
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_BYTES:
+                return readBytes(in);
+            case TYPE_SERIALIZED:
+                ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)));
+                try {
+                    return stream.readObject();
+                } finally {
+                    stream.close();
+                }
+            default:
+                throw new IOException("unknown type " + type);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Write pending changes and stop. The file is kept to be restored later
+     */
+    synchronized void close() {
+        flush();
+        closed = true;
+        close(out);
+        out = null;
+    }
+
+    /**
+     * Stop and delete the file
+     */
+    synchronized void discard() {
+        closed = true;
+        dirty.clear();
+        close(out);
+        out = null;
+        file.delete();
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                Utils.log(e);
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.arash.basemodule.tools.vmvglue;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.app.Dialog;
+import android.os.Looper;
+import android.util.SparseArray;
 import android.view.View;
 
 import androidx.fragment.app.Fragment;
@@ -13,100 +15,91 @@ import com.arash.basemodule.contracts.Observable;
 import com.arash.basemodule.contracts.Observer;
 import com.arash.basemodule.tools.Utils;
 import com.arash.basemodule.tools.sessionmanager.SessionRepository;
-import com.arash.basemodule.tools.vmvglue.contracts.Any;
+import com.arash.basemodule.tools.vmvglue.contracts.Invoker;
 import com.arash.basemodule.tools.vmvglue.contracts.ViewListenerProvider;
-import com.arash.basemodule.tools.vmvglue.contracts.VmBindInfo;
-import com.arash.basemodule.tools.vmvglue.contracts.XmlBindInfo;
 
-import org.codejargon.feather.Key;
-
-import java.lang.reflect.Field;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
- * !This class depends on Feather library for dependency injection. Edit this file to hire another DI lib<br/><br/>
+ * !This class depends on Feather library for dependency injection. View listener providers are resolved in BindSchema, edit that file to hire another DI lib<br/><br/>
  * This class does two jobs in MVVM pattern:<br/>
  * 1. It binds declared views in activity, fragment, ... to their xml id if there is any @XmlBindInfo annotation (initialization)<br/>
  * 2. It binds declared views in activity, fragment, ... to view-model if there is any @VmBindInfo. (one-way or two-way. It's up to you)<br/>
- * By event in view object, I will call view-model setter and also I can register for changes in view-model, then I will call setter on view object
+ * By event in view object, I will call view-model setter and also I can register for changes in view-model, then I will call setter on view object<br/><br/>
+ * If the compiler module is hired as annotation processor, a binder is generated for every view class at compile time. In that case no reflection scan happens and
+ * fields and methods are accessed directly. Anything which is not covered by the generated binder is handled via reflection.<br/>
+ * Resolved fields and methods are kept in BindSchema for the whole process, so scanning happens only on the first open of each screen
  */
 public class BindProcessor {
+    // no value to pass on. e.g. a value which is rejected by the converter
+    static final Object NO_VALUE = new Object();
+    private static final String VIEW_MODEL_KEY = "view_model";
+
+    private static volatile boolean leakTracking;
+    private static final List<WeakReference<BindData>> trackedBindings = new ArrayList<>();// bindings which are created while leak tracking is enabled. Guarded by itself
+
+    private static final Executor loader = Executors.newSingleThreadExecutor();// calls view-model getters which are marked to be loaded in background
+
     /**
-     * Binding data holder
+     * Binding data holder. Resolved fields and methods live in the shared BindSchema, this class only keeps the state of one view instance
      */
     private static class BindData {
+        final BindSchema schema;// shared binding information of the view class
         Object viewModelObj;// ViewModel object
-        List<FieldData> lst = new ArrayList<>();// list of fields for binding xml
-        Map<Class<?>, Method[]> tempMethodMemo;
+        final FieldData[] lst;// list of fields for binding xml
+        ViewUpdateBatcher batcher;// coalesces view updates per frame. Null if batching is not enabled
+        ViewUpdateBatcher retiredBatcher;// batching is disabled while observers are registered. They keep posting to it till they are unregistered
+        boolean loadInBackground;// all view-model getters are called in background
+        BackgroundLoad backgroundLoad;// the running background load or null
         boolean inUse;
-
-        Method[] getMethodsOf(Class<?> cls) {
-            if (tempMethodMemo == null)
-                tempMethodMemo = new HashMap<>();
-            Method[] methods = tempMethodMemo.get(cls);
-            if (methods == null) {
-                methods = cls.getMethods();
-                tempMethodMemo.put(cls, methods);
-            }
-            return methods;
-        }
-
-        void clearTempMemo() {
-            tempMethodMemo = null;
+        boolean pinned;// its session is pinned till finish(), so setMaxSessions() does not drop a live screen
+        WeakReference<Object> owner;// the view object of the last init(). It is only used to report leaked sessions
+
+        BindData(BindSchema schema) {
+            this.schema = schema;
+            lst = new FieldData[schema.fields.length];
+            for (int i = 0; i < lst.length; i++)
+                lst[i] = new FieldData(schema.viewCls, schema.fields[i]);
         }
     }
 
     private static class FieldData {
-        Field field;// the element field of View
-        Object elm;// the element instance of View
-        boolean bindToXml;// this element needs to be bind to a resource Id
-        MethodData md;// information about all getters && setters
-
-        FieldData(Field field) {
-            this.field = field;
-        }
-    }
-
-    /**
-     * Required information for calling methods of View & ViewModel
-     */
-    private static class MethodData {
-        Method vSetterMethod;// view-setter-method
-        Class<?> vSetterParam;// view-setter-method parameter. This one helps to pick the correct method in case of polymorphism
-        Method vGetter;// view-getter-method
-        String vEventListenerRegisterer;// this one, helps to catch an instance via Feather
-
-        Method vmSetterMethod;// view-model-setter-method
-        Class<?> vmSetterParam;// view-model-setter-method parameter. This one helps to pick the correct method in case of polymorphism
-        Method vmGetterMethod;// view-model-getter-method
-        boolean registerForVmChanges;// should view listens for view-model changes
+        final Class<?> viewCls;// view class which the field is bound for
+        final BindSchema.FieldSchema fs;// resolved information of the field
+        final BindSchema.MethodSchema md;// information about all getters && setters
+        private WeakReference<Object> elm;// the element instance of View. BindData outlives the view on configuration change, so it must not hold the view
+        final LastValue lastValue = new LastValue();// last value which is pushed to or read from elm
+        int viewUpdates;// number of values delivered to the view. A background load result is dropped if a newer value is delivered in the meantime
+        Invoker vSetterMethod;// view-setter-method, resolved for the class of elm
+        Invoker vGetter;// view-getter-method, resolved for the class of elm
 
         Observer<Object> vmObserver;// view-model observer. This instance observes changes of view-model variable. We need to store the instance to be able to unregister it
         Consumer<Object> vEventConsumer;// To unregister view event consumer. It may leads to memory leak if we take no action on dismiss of the view
+        ViewEventLimiter vEventLimiter;// debounces or throttles view events. Null if no limit is set
 
         Observable<Object> vmGetterOutput;// it is view-model getter output to make the whole process a little bit faster
-        ViewListenerProvider viewListenerProvider;// it provides register/unregister methods for the view element event
-
-        void setVMethods(Method setter, Class<?> setterParam, Method getter, String eventListenerRegisterer) {
-            vSetterMethod = setter;
-            vSetterParam = setterParam;
-            vGetter = getter;
-            vEventListenerRegisterer = eventListenerRegisterer;
+        ViewListenerProvider viewListenerProvider;// it provides register/unregister methods for the view element event. It is created once and reused on every start
+        boolean vEventRegistered;// is vEventConsumer registered to the element now
+        BindStats.FieldStats stats;// counters of the field. It is created on first record
+
+        FieldData(Class<?> viewCls, BindSchema.FieldSchema fs) {
+            this.viewCls = viewCls;
+            this.fs = fs;
+            this.md = fs.md;
         }
 
-        void setMvMethods(Method setter, Class<?> setterParam, Method getter, boolean enableRegistering) throws Exception {
-            vmSetterMethod = setter;
-            vmSetterParam = setterParam;
-            vmGetterMethod = getter;
-            registerForVmChanges = enableRegistering;
-            if (registerForVmChanges && !Observable.class.isAssignableFrom(vmGetterMethod.getReturnType()))
-                throw new Exception("as registerForVmChanges() is set to true, " + vmGetterMethod.getName() + " must return " + Observable.class.getName() + " while it is not");
+        /**
+         * @return the element or null if it is not bound yet or its view is gone
+         */
+        Object getElm() {
+            return elm != null ? elm.get() : null;
         }
     }
 
@@ -178,104 +171,127 @@ public class BindProcessor {
     private static BindData getBindData(Object viewObj, int nodeLevel, Object viewModel) throws Exception {
         SessionRepository.Session session = getSession(viewObj);
         BindData bindData = getBindDataObject(session);
-        if (bindData == null) {// if no BindData exists, create one and init it
-            bindData = new BindData();
-            findAnnotatedFields(viewObj, nodeLevel, bindData);// extract all field which are annotated by @XmlBindInfo or @VmBindInfo
-            bindElementsToXml(viewObj, bindData);
-            if (viewModel != null) {
-                bindData.viewModelObj = viewModel;
-                extractMethods(bindData);// put setters/getters of view & view-model objects into BindData
-            }
+        if (bindData == null) {// if no BindData exists, create one on top of the shared schema
+            if (viewModel == null)
+                viewModel = peek(session, VIEW_MODEL_KEY);// restored by a persistent session after process death
+            bindData = new BindData(BindSchema.of(viewObj.getClass(), nodeLevel, viewModel != null ? viewModel.getClass() : null));
+            bindData.viewModelObj = viewModel;
             session.put("bind_data", bindData);// put data into the session for later use
-        } else {// a BindData object is restored, so there is no need to init that, but binding to xml is necessary
-            bindElementsToXml(viewObj, bindData);
+            keepViewModel(session, viewModel);
+            if (leakTracking) {
+                synchronized (trackedBindings) {
+                    trackedBindings.add(new WeakReference<>(bindData));
+                }
+            }
+        }
+        if (!bindData.pinned) {
+            session.pin();
+            bindData.pinned = true;
         }
+        bindData.owner = new WeakReference<>(viewObj);
+        // binding to xml is necessary for restored BindData objects too
+        bindElementsToXml(viewObj, bindData);
         return bindData;
     }
 
     /**
-     * @param session a session related to this class which is given by getSession() method
-     * @return an BindData instance, a brand new one or from repository
+     * BindData itself can not be persisted, so a Serializable view-model is kept in the session separately.
+     * If the session is made persistent by SessionRepository.setPersistent(), the view-model survives process death.
+     * Its file is read when the session is caught for the first time, which is on the main thread in initActivity() unless the session is caught in background before
      */
-    private static BindData getBindDataObject(SessionRepository.Session session) {
-        return (BindData) session.get("bind_data", null);
+    private static void keepViewModel(SessionRepository.Session session, Object viewModel) {
+        if (viewModel instanceof Serializable)
+            session.put(VIEW_MODEL_KEY, viewModel);
     }
 
     /**
-     * Trace back the whole hierarchy till Object class to find all annotated fields (scope doesn't matter)
-     *
-     * @param viewObj   The view instance, Activity, Fragment, ...
-     * @param nodeLevel down to 0(hierarchy level)
-     * @param bindData  An instance of BindData (new one or restored from SessionRepository)
-     */
-    private static void findAnnotatedFields(Object viewObj, int nodeLevel, BindData bindData) {
-        Class<?> cls = viewObj.getClass();
-        appendFields(bindData, cls.getFields());
-        for (int i = 0; i <= nodeLevel && cls != Object.class; i++) {
-            appendFields(bindData, cls.getDeclaredFields());
-            cls = cls.getSuperclass();
-        }
+     * @param session a session related to this class which is given by getSession() method
+     * @return an BindData instance, a brand new one or from repository
+     */
+    private static BindData getBindDataObject(SessionRepository.Session session) {
+        return (BindData) peek(session, "bind_data");
     }
 
     /**
-     * Append annotated fields of a hierarchy class
-     *
-     * @param bindData BindData instance
-     * @param fields   all the fields including private, protected, public and packaged scope
-     * @see #findAnnotatedFields(Object, int, BindData)
-     */
-    private static void appendFields(BindData bindData, Field[] fields) {
-        boolean xmlBind, vmBind;
-        for (Field f : fields) {
-            xmlBind = f.isAnnotationPresent(XmlBindInfo.class);
-            vmBind = f.isAnnotationPresent(VmBindInfo.class);
-            if (xmlBind || vmBind) {
-                f.setAccessible(true);
-                FieldData fd = new FieldData(f);
-                fd.bindToXml = xmlBind;
-                bindData.lst.add(fd);
-                if (vmBind)
-                    fd.md = new MethodData();
-            }
-        }
+     * Read an entry without side effects. Session.get() puts the default value on a miss, which leaves a null entry (and a file record in a persistent session) behind
+     */
+    private static Object peek(SessionRepository.Session session, String key) {
+        return session.containsKey(key) ? session.get(key, null) : null;
     }
 
     /**
      * If the element of view has come from xml (view or string resource), This method binds it their relative resources.
-     * If the element is of type View class, root node of view is necessary, then calling rootView.findViewById(resId) would be enough
-     * to catch an instance.<br/>
-     * Strings would be fetched from string resource
+     * If the element is of type View class, root node of view is necessary. The view tree is traversed once to find all requested ids,
+     * then rootView.findViewById(resId) is called only for ids which are not found that way.<br/>
+     * Strings would be fetched from string resource.<br/>
+     * Element methods are picked from the schema based on the class of found element
      *
      * @param viewObj  view instance
      * @param bindData BindData instance
      * @throws Exception any exception related to reflection during binding
      */
     private static void bindElementsToXml(Object viewObj, BindData bindData) throws Exception {
-        View rootView = null;
-        for (FieldData fd : bindData.lst) {
-            if (fd.bindToXml) {
-                XmlBindInfo val = fd.field.getAnnotation(XmlBindInfo.class);
-                assert val != null;
-                Class<?> cls = fd.field.getType();
-                if (View.class.isAssignableFrom(cls)) {// target field is view
-                    if (rootView == null)
-                        rootView = getRootViewFromContainerInstance(viewObj);
-                    fd.elm = findView(rootView, val.value());
-                    if (fd.elm == null)
-                        throw new Exception(String.format("view %s.%s not found by given id", viewObj.getClass().getName(), fd.field.getName()));
-                    fd.field.set(viewObj, fd.elm);
-                } else if (cls == String.class) { // target field is string
-                    fd.elm = Utils.getString(val.value());
-                    if (fd.elm == null)
-                        throw new Exception(String.format("String %s.%s not found by given id", viewObj.getClass().getName(), fd.field.getName()));
-                    fd.field.set(viewObj, fd.elm);
-                } else {
-                    throw new Exception(String.format("binding for field %s.%s failed. Only views and strings are allowed", viewObj.getClass().getName(), fd.field.getName()));
+        long t = BindStats.begin(bindData.schema.viewCls, BindStats.Phase.XML_BINDING);
+        try {
+            View rootView = null;
+            SparseArray<View> views = null;
+            for (FieldData fd : bindData.lst) {
+                BindSchema.FieldSchema fs = fd.fs;
+                if (fs.bindToXml) {
+                    if (fs.isView) {// target field is view
+                        if (rootView == null) {
+                            rootView = getRootViewFromContainerInstance(viewObj);
+                            views = ViewIndexer.index(rootView, bindData.schema.viewIds);
+                        }
+                        View elm = views.get(fs.resId);
+                        if (elm == null)
+                            elm = findView(rootView, fs.resId);
+                        if (elm == null)
+                            throw new Exception(String.format("view %s.%s not found by given id", viewObj.getClass().getName(), fs.field.getName()));
+                        if (elm != fd.getElm()) {
+                            fd.lastValue.forget();// a new element knows nothing about previous values
+                            fd.elm = new WeakReference<>(elm);
+                        }
+                        setField(bindData, fd, viewObj, elm);
+                    } else if (fs.field.getType() == String.class) { // target field is string
+                        String elm = Utils.getString(fs.resId);
+                        if (elm == null)
+                            throw new Exception(String.format("String %s.%s not found by given id", viewObj.getClass().getName(), fs.field.getName()));
+                        fd.elm = new WeakReference<>(elm);// the field of view object keeps it alive
+                        setField(bindData, fd, viewObj, elm);
+                    } else {
+                        throw new Exception(String.format("binding for field %s.%s failed. Only views and strings are allowed", viewObj.getClass().getName(), fs.field.getName()));
+                    }
+                }
+                Object elm = fd.getElm();
+                if (fd.md != null && elm != null) {
+                    BindSchema.ElementMethods em = fd.md.getElementMethods(elm.getClass());
+                    fd.vSetterMethod = em.vSetterMethod;
+                    fd.vGetter = em.vGetter;
                 }
             }
+        } finally {
+            BindStats.end(bindData.schema.viewCls, BindStats.Phase.XML_BINDING, t);
         }
     }
 
+    /**
+     * write element into the field of view object. Generated binder is preferred over reflection
+     *
+     * @param bindData BindData instance
+     * @param fd       field data which holds the element
+     * @param viewObj  view instance
+     * @param elm      the element
+     * @throws IllegalAccessException if reflection fails
+     */
+    private static void setField(BindData bindData, FieldData fd, Object viewObj, Object elm) throws IllegalAccessException {
+        int binderIndex = fd.fs.binderIndex;
+        if (binderIndex >= 0 && bindData.schema.binder.canSetField(binderIndex))
+            bindData.schema.binder.setField(viewObj, binderIndex, elm);
+        else
+            fd.fs.field.set(viewObj, elm);
+    }
+
     /**
      * @param rootView view instance in MVVM model
      * @param initInfo R.id
@@ -312,155 +328,131 @@ public class BindProcessor {
     }
 
     /**
-     * To do set/get operation, I need to fetch the relative methods via reflection. This method is responsible for extracting desired methods from view and view-model objects
+     * If init() is called already, you can load view-model data into view by calling this method
      *
-     * @param bindData BindData instance. This object contains view-model object, so there is no need to pass it separately
-     * @throws Exception any reflection related exception
-     */
-    private static void extractMethods(BindData bindData) throws Exception {
-        /*
-         * BindProcessor is due to connect view to view-model and vice versa via reflection:
-         * to get notified when the variable in view-model changes, view-model must return an observable via its getter
-         * checkout the following schema:
-         *  ______________     ______________     _____________________
-         * |        event:|-->|              |-->|:setter              |
-         * | view  getter:|-->|   BindProc   |   |          view-model |
-         * |       setter:|<--| (reflection) |<--|:getter:observable   |
-         * |______________|   |______________|   |_____________________|
-         */
-        for (FieldData fd : bindData.lst) {
-            // catch annotations
-            if (fd.md != null) {
-                VmBindInfo modelInfo = fd.field.getAnnotation(VmBindInfo.class);
-
-                // catch desired methods of view and view-model
-                extractMethods(bindData, modelInfo, fd, bindData.viewModelObj);
-            }
-        }
-        bindData.clearTempMemo();
+     * @param viewObj view instance in MVVM
+     */
+    public static void loadDataFromViewModelIntoView(Object viewObj) throws InvocationTargetException, IllegalAccessException {
+        loadDataFromViewModelIntoView(getBindDataObject(getSession(viewObj)));
     }
 
     /**
-     * Extract method for every FieldData
-     *
-     * @param bindInfo     annotation information
-     * @param fd           field data
-     * @param viewModelObj view-model instance
-     */
-    private static void extractMethods(BindData bindData, VmBindInfo bindInfo, FieldData fd, Object viewModelObj) throws Exception {
-        // if an event is defined for view then a setter must be declared for view-model
-        if ((bindInfo.elmEventRegistererName().length() > 0 || bindInfo.elmGetter().length() > 0) && bindInfo.vmSetter().length() == 0) {
-            throw new Exception("as elmEventRegistererName() is set, I need to call vmSetter() when an event happens, but it is not defined");
-        }
-
-        // if a getter is defined for view-model then a setter must be declared for view
-        if (bindInfo.vmGetter().length() > 0 && bindInfo.elmSetter().length() == 0) {
-            throw new Exception("as vmGetter() is set, I need to call elmSetter() to load data into view, but it is not defined");
-        }
-
-        // if view must lister to view-model changes then vmGetter() must be set and its return type must be Observable. Type check happens at setMvMethods() method
-        if (bindInfo.registerForVmChanges() && bindInfo.vmGetter().length() == 0) {
-            throw new Exception("as registerForVmChanges() is set to true, vmGetter() must be defined too while it is not");
+     * @see #loadDataFromViewIntoViewModel(Object)
+     */
+    private static void loadDataFromViewModelIntoView(BindData bindData) throws IllegalAccessException, InvocationTargetException {
+        long t = BindStats.begin(bindData.schema.viewCls, BindStats.Phase.INITIAL_LOAD);
+        try {
+            if (bindData.viewModelObj != null) {
+                int backgroundCount = 0;
+                for (FieldData fd : bindData.lst) {
+                    Object elm = fd.getElm();
+                    if (fd.md != null && fd.md.vmGetterMethod != null && elm != null) {
+                        if (bindData.loadInBackground || fd.md.loadInBackground) {
+                            backgroundCount++;
+                            continue;
+                        }
+                        Object result = invoke(fd, fd.md.vmGetterMethod, bindData.viewModelObj, null, false);
+                        if (result instanceof Observable)
+                            result = ((Observable<Object>) result).getValue();
+                        result = toElementValue(fd.md, fd.lastValue, result);
+                        if (result != NO_VALUE) {
+                            fd.viewUpdates++;
+                            invoke(fd, fd.vSetterMethod, elm, result, true);
+                        }
+                    }
+                }
+                if (backgroundCount > 0) {
+                    if (bindData.backgroundLoad != null)
+                        bindData.backgroundLoad.cancel();// the new load replaces the old one
+                    bindData.backgroundLoad = new BackgroundLoad(bindData, backgroundCount);
+                    loader.execute(bindData.backgroundLoad);
+                }
+            }
+        } finally {
+            BindStats.end(bindData.schema.viewCls, BindStats.Phase.INITIAL_LOAD, t);
         }
-
-        // to prevent creating Class[] two times (check out a little bit further), I create one with length of 2
-        Class<?>[] params = new Class<?>[]{bindInfo.elmSetterParam(), Void.class};
-        Method[] methods = findMethods(bindData, fd.elm, new String[]{bindInfo.elmSetter(), bindInfo.elmGetter()}, params);
-        fd.md.setVMethods(methods[0], params[0], methods[1], bindInfo.elmEventRegistererName());
-
-        // instead of creating another Class[], use the previous one
-        params[0] = bindInfo.vmSetterParam();
-        methods = findMethods(bindData, viewModelObj, new String[]{bindInfo.vmSetter(), bindInfo.vmGetter()}, params);
-        fd.md.setMvMethods(methods[0], params[0], methods[1], bindInfo.registerForVmChanges());
     }
 
     /**
-     * As the array of all public methods is usually big, I try to fetch all desired methods at once
-     *
-     * @param targetObj   it would view  or view-model instances
-     * @param methodNames array of desired methods
-     * @param paramTypes  array of params of method (!each method must not have more than one parameter)
-     * @return array of methods based on name argument with the same order
-     * @throws Exception any reflection kind exception
-     */
-    private static Method[] findMethods(BindData bindData, Object targetObj, String[] methodNames, Class<?>[] paramTypes) throws Exception {
-        Class<?> cls = targetObj.getClass();
-        Method[] methods = bindData.getMethodsOf(cls);
-        Method[] result = new Method[methodNames.length];
-        for (int i = 0; i < result.length; i++) {
-            if (methodNames[i].length() > 0) {
-                result[i] = getMethod(cls, methods, methodNames[i], paramTypes[i]);
+     * Calls view-model getters on the loader thread, then applies all results to views in one main thread pass.
+     * Created and cancelled on the main thread
+     */
+    private static final class BackgroundLoad implements Runnable {
+        private final BindData bindData;
+        private final Object viewModelObj;
+        private final FieldData[] fields;
+        private final int[] viewUpdates;// FieldData.viewUpdates at the start of the load
+        private final Object[] results;
+        private volatile boolean cancelled;
+
+        BackgroundLoad(BindData bindData, int count) {
+            this.bindData = bindData;
+            this.viewModelObj = bindData.viewModelObj;
+            fields = new FieldData[count];
+            viewUpdates = new int[count];
+            results = new Object[count];
+            int i = 0;
+            for (FieldData fd : bindData.lst) {
+                if (fd.md != null && fd.md.vmGetterMethod != null && fd.getElm() != null && (bindData.loadInBackground || fd.md.loadInBackground)) {
+                    fields[i] = fd;
+                    viewUpdates[i] = fd.viewUpdates;
+                    i++;
+                }
             }
         }
-        return result;
-    }
 
-    /**
-     * Loop through given method name with its parameter type
-     *
-     * @param containerCls container object type
-     * @param methods      method array
-     * @param name         target method name
-     * @param paramType    parameters
-     * @return the found method
-     * @throws Exception any reflection kind exception
-     */
-    private static Method getMethod(Class<?> containerCls, Method[] methods, String name, Class<?> paramType) throws Exception {
-        Method targetMethod = null;
-        List<Method> foundMethods = new LinkedList<>();
-        for (Method m : methods) {
-            if (m.getName().equals(name)) {
-                if (paramType == Any.class) {
-                    targetMethod = m;
-                    break;
-                } else {
-                    Class<?>[] p = m.getParameterTypes();
-                    if (paramType == Void.class && p.length == 0) {
-                        targetMethod = m;
-                        break;
-                    } else if (p.length == 1 && p[0].isAssignableFrom(paramType)) {
-                        targetMethod = m;
-                        break;
-                    }
+        @Override
+        public void run() {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                apply();
+                return;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (cancelled)
+                    return;
+                try {
+                    Object result = invoke(fields[i], fields[i].md.vmGetterMethod, viewModelObj, null, false);
+                    if (result instanceof Observable)
+                        result = ((Observable<Object>) result).getValue();
+                    results[i] = result;
+                } catch (IllegalAccessException e) {
+                    results[i] = NO_VALUE;
+                    Utils.log(e);
+                } catch (InvocationTargetException e) {
+                    results[i] = NO_VALUE;
+                    Utils.log(e);
                 }
-                foundMethods.add(m);
+            }
+            if (!cancelled)
+                BaseModule.getHandler().post(this);// results are safely published by the handler queue
+        }
+
+        private void apply() {
+            if (cancelled)
+                return;
+            bindData.backgroundLoad = null;
+            for (int i = 0; i < fields.length; i++) {
+                if (results[i] != NO_VALUE && fields[i].viewUpdates == viewUpdates[i])
+                    loadValueIntoView(fields[i], results[i]);
             }
         }
-        if (targetMethod == null) {
-            StringBuilder sb = new StringBuilder(200);
-            sb.append("Found Method list in ").append(containerCls.getName()).append(": [\n");
-            for (Method m : foundMethods)
-                sb.append(m.toString()).append('\n');
-            sb.append("]. None of theme matched\n")
-                    .append(name).append('(').append(paramType.getName()).append(')');
-            throw new Exception(sb.toString());
+
+        void cancel() {
+            cancelled = true;
+            BaseModule.getHandler().removeCallbacks(this);
         }
-        return targetMethod;
     }
 
     /**
-     * If init() is called already, you can load view-model data into view by calling this method
+     * By default, view-model getters are called on the main thread in loadDataFromViewModelIntoView(). Enable background loading to call all of them on a background thread,
+     * then the results are applied to views in one batch on the main thread. The load is cancelled if unregisterObservers() is called before it is finished.<br/>
+     * To do that for some fields only, use VmBindInfo.loadInBackground(). init() must got call already
      *
      * @param viewObj view instance in MVVM
+     * @param enabled pass in true to load view-model data in background
      */
-    public static void loadDataFromViewModelIntoView(Object viewObj) throws InvocationTargetException, IllegalAccessException {
-        loadDataFromViewModelIntoView(getBindDataObject(getSession(viewObj)));
-    }
-
-    /**
-     * @see #loadDataFromViewIntoViewModel(Object)
-     */
-    private static void loadDataFromViewModelIntoView(BindData bindData) throws IllegalAccessException, InvocationTargetException {
-        if (bindData.viewModelObj != null) {
-            for (FieldData fd : bindData.lst) {
-                if (fd.md != null && fd.md.vmGetterMethod != null) {
-                    Object result = fd.md.vmGetterMethod.invoke(bindData.viewModelObj);
-                    if (result instanceof Observable)
-                        result = ((Observable<Object>) result).getValue();
-                    fd.md.vSetterMethod.invoke(fd.elm, result);
-                }
-            }
-        }
+    public static void setBackgroundLoading(Object viewObj, boolean enabled) {
+        getBindDataObject(getSession(viewObj)).loadInBackground = enabled;
     }
 
     /**
@@ -477,9 +469,13 @@ public class BindProcessor {
      */
     private static void loadDataFromViewIntoViewModel(BindData bindData, Object viewObj) throws IllegalAccessException, InvocationTargetException {
         for (FieldData fd : bindData.lst) {
-            if (fd.md != null && fd.md.vGetter != null) {
-                Object result = fd.md.vGetter.invoke(viewObj);
-                fd.md.vmSetterMethod.invoke(bindData.viewModelObj, result);
+            Object elm = fd.getElm();
+            if (fd.md != null && fd.vGetter != null && elm != null) {
+                Object result = invoke(fd, fd.vGetter, elm, null, false);
+                fd.lastValue.isSame(fd.md.equality, result);// just remember it, the caller asked for all values
+                result = toViewModelValue(fd.md, result);
+                if (result != NO_VALUE)
+                    invoke(fd, fd.md.vmSetterMethod, bindData.viewModelObj, result, false);
             }
         }
     }
@@ -497,23 +493,134 @@ public class BindProcessor {
      * @see #registerForViewModelChanges(Object)
      */
     private static void registerForViewModelChanges(BindData bindData) throws InvocationTargetException, IllegalAccessException {
-        if (bindData.viewModelObj != null) {
-            for (FieldData fd : bindData.lst) {
-                if (fd.md != null && fd.md.registerForVmChanges) {
-                    fd.md.vmObserver = o -> {
-                        try {
-                            fd.md.vSetterMethod.invoke(fd.elm, o);
-                        } catch (IllegalAccessException e) {
-                            Utils.log(e);
-                        } catch (InvocationTargetException e) {
-                            Utils.log(e);
+        long t = BindStats.begin(bindData.schema.viewCls, BindStats.Phase.LISTENER_REGISTRATION);
+        try {
+            if (bindData.viewModelObj != null) {
+                final ViewUpdateBatcher batcher = bindData.batcher;// observers keep the mode they are registered by
+                if (batcher != null)
+                    batcher.start();
+                for (int i = 0; i < bindData.lst.length; i++) {
+                    FieldData fd = bindData.lst[i];
+                    if (fd.md != null && fd.md.registerForVmChanges) {
+                        if (batcher != null) {
+                            final int index = i;
+                            fd.vmObserver = o -> batcher.post(index, o);
+                        } else {
+                            fd.vmObserver = o -> loadValueIntoView(fd, o);
                         }
-                    };
-                    fd.md.vmGetterOutput = (Observable<Object>) fd.md.vmGetterMethod.invoke(bindData.viewModelObj);
-                    fd.md.vmGetterOutput.observe(fd.md.vmObserver);
+                        fd.vmGetterOutput = (Observable<Object>) invoke(fd, fd.md.vmGetterMethod, bindData.viewModelObj, null, false);
+                        fd.vmGetterOutput.observe(fd.vmObserver);
+                    }
                 }
+                bindData.inUse = true;
             }
-            bindData.inUse = true;
+        } finally {
+            BindStats.end(bindData.schema.viewCls, BindStats.Phase.LISTENER_REGISTRATION, t);
+        }
+    }
+
+    /**
+     * Convert a view-model value for the element and compare it with the last value of the element. Shared by ItemBinder
+     *
+     * @param md    methods of the field
+     * @param last  last value of the element
+     * @param value view-model value
+     * @return the value for the element setter or NO_VALUE if it is equal to the last one
+     * @throws RuntimeException thrown by the converter
+     */
+    static Object toElementValue(BindSchema.MethodSchema md, LastValue last, Object value) {
+        if (md.converter != null)
+            value = md.converter.toView(value);
+        return last.isSame(md.equality, value) ? NO_VALUE : value;
+    }
+
+    /**
+     * call view setter and log failures
+     *
+     * @param fd    target field
+     * @param value new value
+     */
+    private static void loadValueIntoView(FieldData fd, Object value) {
+        Object elm = fd.getElm();
+        if (elm == null)// view is gone
+            return;
+        fd.viewUpdates++;
+        try {
+            value = toElementValue(fd.md, fd.lastValue, value);
+            if (value != NO_VALUE)
+                invoke(fd, fd.vSetterMethod, elm, value, true);
+        } catch (IllegalAccessException e) {
+            Utils.log(e);
+        } catch (InvocationTargetException e) {
+            Utils.log(e);
+        } catch (RuntimeException e) {// thrown by the converter
+            Utils.log(e);
+        }
+    }
+
+    /**
+     * call a setter or getter of the field. The call is recorded if BindStats is enabled
+     *
+     * @param fd         target field
+     * @param invoker    the setter or getter
+     * @param target     element or view-model
+     * @param arg        setter argument
+     * @param viewUpdate pass in true if it is the element setter
+     * @return output of the invoker
+     */
+    private static Object invoke(FieldData fd, Invoker invoker, Object target, Object arg, boolean viewUpdate) throws InvocationTargetException, IllegalAccessException {
+        if (!BindStats.isEnabled())
+            return invoker.invoke(target, arg);
+        long start = System.nanoTime();
+        try {
+            return invoker.invoke(target, arg);
+        } finally {
+            if (fd.stats == null)
+                fd.stats = BindStats.field(fd.viewCls, fd.fs.field.getName());
+            fd.stats.record(System.nanoTime() - start, viewUpdate);
+        }
+    }
+
+    /**
+     * Convert the value of the element for the view-model setter. Shared by ItemBinder
+     *
+     * @param md    methods of the field
+     * @param value value of the element
+     * @return converted value or NO_VALUE if the converter rejects it. e.g. a half typed number
+     */
+    static Object toViewModelValue(BindSchema.MethodSchema md, Object value) {
+        if (md.converter == null)
+            return value;
+        try {
+            return md.converter.toViewModel(value);
+        } catch (IllegalArgumentException e) {
+            return NO_VALUE;
+        }
+    }
+
+    /**
+     * By default, every view-model change is loaded into view immediately. Enable batching to collect the changes and apply them once per frame on the main thread.
+     * Only the last value of each field is applied, so a burst of changes causes one setter call and one relayout per field. Changes may come from any thread.<br/>
+     * init() must got call already. The mode takes effect on the next registerForViewModelChanges()
+     *
+     * @param viewObj view instance in MVVM
+     * @param enabled pass in true to coalesce view updates per frame
+     */
+    public static void setBatchedViewUpdates(Object viewObj, boolean enabled) {
+        BindData bindData = getBindDataObject(getSession(viewObj));
+        if (enabled && bindData.batcher == null) {
+            bindData.batcher = new ViewUpdateBatcher(bindData.lst.length) {
+                @Override
+                void apply(int index, Object value) {
+                    loadValueIntoView(bindData.lst[index], value);
+                }
+            };
+        } else if (!enabled && bindData.batcher != null) {
+            if (bindData.inUse)
+                bindData.retiredBatcher = bindData.batcher;// registered observers still use it
+            else
+                bindData.batcher.cancel();
+            bindData.batcher = null;
         }
     }
 
@@ -530,24 +637,41 @@ public class BindProcessor {
      * @see #registerForViewChanges(Object)
      */
     private static void registerForViewChanges(BindData bindData) {
-        if (bindData.viewModelObj != null) {
-            for (FieldData fd : bindData.lst) {
-                if (fd.md != null && !fd.md.vEventListenerRegisterer.isEmpty()) {
-                    fd.md.viewListenerProvider = BaseModule.feather.instance(Key.of(ViewListenerProvider.class, fd.md.vEventListenerRegisterer));
-                    assert fd.md.viewListenerProvider != null;
-                    fd.md.vEventConsumer = o -> {
-                        try {
-                            fd.md.vmSetterMethod.invoke(bindData.viewModelObj, o);
-                        } catch (IllegalAccessException e) {
-                            Utils.log(e);
-                        } catch (InvocationTargetException e) {
-                            Utils.log(e);
+        long t = BindStats.begin(bindData.schema.viewCls, BindStats.Phase.LISTENER_REGISTRATION);
+        try {
+            if (bindData.viewModelObj != null) {
+                for (FieldData fd : bindData.lst) {
+                    View elm = (View) fd.getElm();
+                    if (fd.md != null && fd.md.vEventListenerProvider != null && !fd.vEventRegistered && elm != null) {
+                        if (fd.viewListenerProvider == null)
+                            fd.viewListenerProvider = fd.md.vEventListenerProvider.get();
+                        if (fd.vEventConsumer == null) {
+                            fd.vEventConsumer = o -> {
+                                try {
+                                    if (!fd.lastValue.isSame(fd.md.equality, o)) {// it is not just the echo of a value which is pushed by me
+                                        Object value = toViewModelValue(fd.md, o);
+                                        if (value != NO_VALUE)
+                                            invoke(fd, fd.md.vmSetterMethod, bindData.viewModelObj, value, false);
+                                    }
+                                } catch (IllegalAccessException e) {
+                                    Utils.log(e);
+                                } catch (InvocationTargetException e) {
+                                    Utils.log(e);
+                                }
+                            };
+                            if (fd.md.debounceMs > 0 || fd.md.throttleMs > 0) {
+                                fd.vEventLimiter = new ViewEventLimiter(fd.vEventConsumer, fd.md.debounceMs, fd.md.throttleMs);
+                                fd.vEventConsumer = fd.vEventLimiter;
+                            }
                         }
-                    };
-                    fd.md.viewListenerProvider.registerListener((View) fd.elm, fd.md.vEventConsumer);
+                        fd.viewListenerProvider.registerListener(elm, fd.vEventConsumer);
+                        fd.vEventRegistered = true;
+                    }
                 }
+                bindData.inUse = true;
             }
-            bindData.inUse = true;
+        } finally {
+            BindStats.end(bindData.schema.viewCls, BindStats.Phase.LISTENER_REGISTRATION, t);
         }
     }
 
@@ -567,19 +691,34 @@ public class BindProcessor {
         SessionRepository.Session session = getSession(viewObj);
         BindData bindData = getBindDataObject(session);
         if (bindData != null) {
+            if (bindData.batcher != null)
+                bindData.batcher.cancel();// views are going to be hidden, pending updates are reloaded on next start
+            if (bindData.retiredBatcher != null) {
+                bindData.retiredBatcher.cancel();
+                bindData.retiredBatcher = null;
+            }
+            if (bindData.backgroundLoad != null) {
+                bindData.backgroundLoad.cancel();// data is loaded again on next start
+                bindData.backgroundLoad = null;
+            }
             for (FieldData fd : bindData.lst) {
                 if (fd.md != null) {
-                    if (fd.md.vmGetterOutput != null) {
-                        fd.md.vmGetterOutput.removeObserver(fd.md.vmObserver);
-                        fd.md.vmObserver = null;
+                    if (fd.vmGetterOutput != null) {
+                        fd.vmGetterOutput.removeObserver(fd.vmObserver);
+                        fd.vmObserver = null;
                     }
-                    if (fd.md.viewListenerProvider != null) {
-                        fd.md.viewListenerProvider.unregisterListener((View) fd.elm, fd.md.vEventConsumer);
-                        fd.md.vEventConsumer = null;
+                    if (fd.vEventRegistered) {// provider and consumer are kept for the next start
+                        View elm = (View) fd.getElm();
+                        if (elm != null)
+                            fd.viewListenerProvider.unregisterListener(elm, fd.vEventConsumer);
+                        fd.vEventRegistered = false;
                     }
+                    if (fd.vEventLimiter != null)
+                        fd.vEventLimiter.flush();// the last typed value must not be lost
                 }
             }
             bindData.inUse = false;
+            keepViewModel(session, bindData.viewModelObj);// the process may be killed while the view is stopped, so a persistent session writes its latest state
         }
     }
 
@@ -602,9 +741,81 @@ public class BindProcessor {
         BindData bd = getBindDataObject(session);
         if (bd != null && bd.inUse)
             unregisterObservers(viewObj);
+        if (bd != null && bd.pinned) {
+            session.unpin();
+            bd.pinned = false;
+        }
         if (clearMemory) {
             SessionRepository.removeSession(session);
+            if (bd != null) {
+                synchronized (trackedBindings) {
+                    Iterator<WeakReference<BindData>> it = trackedBindings.iterator();
+                    while (it.hasNext()) {
+                        BindData tracked = it.next().get();
+                        if (tracked == null || tracked == bd)
+                            it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * For debug builds. While it is enabled, every new binding session is tracked so that reportLeakedBindings() can find sessions which are never finished
+     *
+     * @param enabled pass in true to track new binding sessions
+     */
+    public static void setLeakTrackingEnabled(boolean enabled) {
+        leakTracking = enabled;
+        if (!enabled) {
+            synchronized (trackedBindings) {
+                trackedBindings.clear();
+            }
+        }
+    }
+
+    /**
+     * Log every tracked binding session whose view object is garbage collected while the session is still kept by SessionRepository.
+     * Such sessions keep their view-model for ever, usually because finish(viewObj, true) is never called (e.g. clearSessionThings() is skipped).<br/>
+     * A session may be reported right after a configuration change too, if the new view object has not called init() yet
+     *
+     * @return number of leaked sessions
+     * @see #setLeakTrackingEnabled(boolean)
+     */
+    public static int reportLeakedBindings() {
+        int count = 0;
+        synchronized (trackedBindings) {
+            Iterator<WeakReference<BindData>> it = trackedBindings.iterator();
+            while (it.hasNext()) {
+                BindData bd = it.next().get();
+                if (bd == null || !isAlive(bd)) {// its session is removed (removeSession(), clearAllSessions() or eviction), so nothing is leaked
+                    it.remove();
+                } else if (bd.owner.get() == null) {
+                    count++;
+                    Utils.log(String.format("binding session of %s is alive while its view is gone. Call BindProcessor.finish(viewObj, true) when the view is finished", bd.schema.viewCls.getName()));
+                }
+            }
         }
+        return count;
+    }
+
+    /**
+     * @return true if the session of the binding still keeps it
+     */
+    private static boolean isAlive(BindData bd) {
+        SessionRepository.Session session = SessionRepository.findSession(bd.schema.viewCls.getName());
+        return session != null && session.containsKey("bind_data") && getBindDataObject(session) == bd;
+    }
+
+    /**
+     * Build binding schemas of the given screens on a background pool, so their first init() does no scanning on the main thread.
+     * It is called by BaseModule with BaseModule.getPrewarmTargets(). Targets must match the arguments of init(), nodeLevel and view-model class included
+     *
+     * @param targets view & view-model classes
+     * @see BindStats.ScreenStats#getWarmOpens()
+     */
+    public static void prewarm(List<BindTarget> targets) {
+        BindSchema.prewarm(targets);
     }
 
     /**
@@ -614,7 +825,8 @@ public class BindProcessor {
      * @return stored view-model object or null
      */
     public static Object getViewModel(Object viewObj) {
-        BindData bd = getBindDataObject(getSession(viewObj));
-        return bd != null ? bd.viewModelObj : null;
+        SessionRepository.Session session = getSession(viewObj);
+        BindData bd = getBindDataObject(session);
+        return bd != null ? bd.viewModelObj : peek(session, VIEW_MODEL_KEY);
     }
 }
@@ -0,0 +1,471 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.view.View;
+
+import com.arash.basemodule.BaseModule;
+import com.arash.basemodule.contracts.Observable;
+import com.arash.basemodule.tools.Utils;
+import com.arash.basemodule.tools.vmvglue.contracts.GeneratedBinder;
+import com.arash.basemodule.tools.vmvglue.contracts.Invoker;
+import com.arash.basemodule.tools.vmvglue.contracts.ValueConverter;
+import com.arash.basemodule.tools.vmvglue.contracts.ValueEquality;
+import com.arash.basemodule.tools.vmvglue.contracts.ViewListenerProvider;
+import com.arash.basemodule.tools.vmvglue.contracts.VmBindInfo;
+import com.arash.basemodule.tools.vmvglue.contracts.XmlBindInfo;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Provider;
+
+/**
+ * Immutable binding information of a (view class, view-model class, nodeLevel) triple.<br/>
+ * Annotation scanning and method extraction happen once per triple for the whole process. Every later init() of the same screen reuses the schema,
+ * so it only costs findViewById() and field writing.<br/>
+ * Schemas are shared between threads, so nothing in this class may change after construction except thread-safe caches
+ */
+final class BindSchema {
+    // process-wide schema cache
+    private static final ConcurrentHashMap<Key, BindSchema> schemas = new ConcurrentHashMap<>();
+    // schemas which are being built by prewarm()
+    private static final ConcurrentHashMap<Key, FutureTask<BindSchema>> warmUps = new ConcurrentHashMap<>();
+    // one pool for all prewarm() calls. Its threads end when they are idle for a while
+    private static final ThreadPoolExecutor warmUpPool;
+
+    static {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        warmUpPool = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "bind-schema-warmup-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        warmUpPool.allowCoreThreadTimeOut(true);
+    }
+
+    // equality strategies are stateless, so one instance per class is shared
+    private static final ConcurrentHashMap<Class<?>, ValueEquality> equalities = new ConcurrentHashMap<>();
+
+    final Class<?> viewCls;
+    final Class<?> viewModelCls;// null if no view-model is bound
+    final int nodeLevel;
+    final GeneratedBinder binder;// compile-time generated binder of the view class or null
+    final FieldSchema[] fields;
+    final int[] viewIds;// sorted distinct ids of the view fields which are bound to xml
+
+    /**
+     * Resolved information of an annotated field
+     */
+    static final class FieldSchema {
+        final Field field;// the element field of View
+        final int binderIndex;// index of this field in the generated binder. -1 if there is no generated binder
+        final boolean bindToXml;// this element needs to be bind to a resource Id
+        final int resId;// value of @XmlBindInfo
+        final boolean isView;// true if the field holds a View, otherwise it may hold a string resource
+        final MethodSchema md;// information about all getters && setters. Null if the field has no @VmBindInfo or no view-model is bound
+
+        FieldSchema(Field field, int binderIndex, MethodSchema md) {
+            this.field = field;
+            this.binderIndex = binderIndex;
+            XmlBindInfo xmlInfo = field.getAnnotation(XmlBindInfo.class);
+            this.bindToXml = xmlInfo != null;
+            this.resId = xmlInfo != null ? xmlInfo.value() : 0;
+            this.isView = View.class.isAssignableFrom(field.getType());
+            this.md = md;
+        }
+    }
+
+    /**
+     * Required information for calling methods of View & ViewModel.<br/>
+     * View-model methods are resolved at construction. Element methods depend on the runtime class of the element, so they are resolved on first use for each element class
+     */
+    static final class MethodSchema {
+        final VmBindInfo info;
+        final Class<?> vSetterParam;// view-setter-method parameter. This one helps to pick the correct method in case of polymorphism
+        final String vEventListenerRegisterer;// this one, helps to catch an instance via Feather
+        final Provider<ViewListenerProvider> vEventListenerProvider;// resolved once by vEventListenerRegisterer. Null if no view event is listened
+
+        final Invoker vmSetterMethod;// view-model-setter-method
+        final Class<?> vmSetterParam;// view-model-setter-method parameter. This one helps to pick the correct method in case of polymorphism
+        final Invoker vmGetterMethod;// view-model-getter-method
+        final boolean registerForVmChanges;// should view listens for view-model changes
+        final ValueEquality equality;// decides whether a value is the same as the last one of the element
+        final long debounceMs;// view event debounce time
+        final long throttleMs;// view event throttle time
+        final boolean loadInBackground;// view-model getter is called off the main thread
+        final ValueConverter<Object, Object> converter;// converts values between element and view-model types. Null if values are passed as they are
+
+        private final Invoker generatedVSetter;// element setter provided by the generated binder
+        private final Invoker generatedVGetter;// element getter provided by the generated binder
+        private volatile ElementMethods elementMethods;// element methods of the last seen element class
+
+        MethodSchema(VmBindInfo info, Invoker[] invokers) throws Exception {
+            this.info = info;
+            vSetterParam = info.elmSetterParam();
+            vEventListenerRegisterer = info.elmEventRegistererName();
+            vEventListenerProvider = vEventListenerRegisterer.isEmpty() ? null : BaseModule.feather.provider(org.codejargon.feather.Key.of(ViewListenerProvider.class, vEventListenerRegisterer));
+            vmSetterMethod = invokers[GeneratedBinder.VM_SETTER];
+            vmSetterParam = info.vmSetterParam();
+            vmGetterMethod = invokers[GeneratedBinder.VM_GETTER];
+            registerForVmChanges = info.registerForVmChanges();
+            equality = getEquality(info.elmValueEquality());
+            debounceMs = info.debounceMs();
+            throttleMs = info.throttleMs();
+            loadInBackground = info.loadInBackground();
+            converter = ValueConverters.find(vSetterParam, vmSetterParam);
+            if (debounceMs < 0 || throttleMs < 0)
+                throw new Exception("debounceMs() and throttleMs() can not be negative");
+            if (debounceMs > 0 && throttleMs > 0)
+                throw new Exception("debounceMs() and throttleMs() can not be used together");
+            generatedVSetter = invokers[GeneratedBinder.ELM_SETTER];
+            generatedVGetter = invokers[GeneratedBinder.ELM_GETTER];
+            // generated getters are checked by annotation processor at compile time
+            if (registerForVmChanges && vmGetterMethod instanceof ReflectiveInvoker) {
+                Method m = ((ReflectiveInvoker) vmGetterMethod).method;
+                if (!Observable.class.isAssignableFrom(m.getReturnType()))
+                    throw new Exception("as registerForVmChanges() is set to true, " + m.getName() + " must return " + Observable.class.getName() + " while it is not");
+            }
+        }
+
+        /**
+         * @param elmCls runtime class of the element
+         * @return setter and getter of the element
+         * @throws Exception if methods are not found
+         */
+        ElementMethods getElementMethods(Class<?> elmCls) throws Exception {
+            ElementMethods em = elementMethods;
+            if (em == null || em.elmCls != elmCls) {
+                Invoker[] invokers = new Invoker[]{generatedVSetter, generatedVGetter};
+                Class<?>[] params = new Class<?>[]{vSetterParam, Void.class};
+                findMissingInvokers(elmCls, new String[]{info.elmSetter(), info.elmGetter()}, params, invokers, 0);
+                em = new ElementMethods(elmCls, invokers[0], invokers[1]);
+                elementMethods = em;
+            }
+            return em;
+        }
+    }
+
+    /**
+     * Element setter & getter of a specific element class
+     */
+    static final class ElementMethods {
+        final Class<?> elmCls;
+        final Invoker vSetterMethod;// view-setter-method
+        final Invoker vGetter;// view-getter-method
+
+        ElementMethods(Class<?> elmCls, Invoker vSetterMethod, Invoker vGetter) {
+            this.elmCls = elmCls;
+            this.vSetterMethod = vSetterMethod;
+            this.vGetter = vGetter;
+        }
+    }
+
+    /**
+     * @param cls equality strategy class
+     * @return shared instance of the strategy
+     * @throws Exception if the strategy can not be instantiated
+     */
+    private static ValueEquality getEquality(Class<? extends ValueEquality> cls) throws Exception {
+        ValueEquality equality = equalities.get(cls);
+        if (equality == null) {
+            equality = cls.newInstance();
+            ValueEquality old = equalities.putIfAbsent(cls, equality);
+            if (old != null)
+                equality = old;
+        }
+        return equality;
+    }
+
+    /**
+     * Cache key
+     */
+    private static final class Key {
+        final Class<?> viewCls;
+        final Class<?> viewModelCls;
+        final int nodeLevel;
+
+        Key(Class<?> viewCls, Class<?> viewModelCls, int nodeLevel) {
+            this.viewCls = viewCls;
+            this.viewModelCls = viewModelCls;
+            this.nodeLevel = nodeLevel;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return viewCls == k.viewCls && viewModelCls == k.viewModelCls && nodeLevel == k.nodeLevel;
+        }
+
+        @Override
+        public int hashCode() {
+            return (viewCls.hashCode() * 31 + (viewModelCls == null ? 0 : viewModelCls.hashCode())) * 31 + nodeLevel;
+        }
+    }
+
+    /**
+     * Fetch the schema from cache or build it. Building may happen more than once if two threads race, but only one instance is kept
+     *
+     * @param viewCls      view class (Activity, Fragment, ...)
+     * @param nodeLevel    hierarchy level
+     * @param viewModelCls view-model class or null
+     * @return shared schema
+     * @throws Exception any reflection kind exception or wrong annotation setup
+     */
+    static BindSchema of(Class<?> viewCls, int nodeLevel, Class<?> viewModelCls) throws Exception {
+        Key key = new Key(viewCls, viewModelCls, nodeLevel);
+        BindSchema schema = schemas.get(key);
+        if (schema == null) {
+            FutureTask<BindSchema> task = warmUps.get(key);
+            if (task != null) {
+                task.run();// it is no-op if the pool has started it already. Otherwise I do it myself instead of waiting in the queue
+                try {
+                    schema = task.get();// a joined warm-up is still a warm open
+                } catch (ExecutionException ignored) {// build it again below to throw the error on this thread
+                }
+            }
+        }
+        BindStats.schemaServed(viewCls, schema != null);
+        if (schema == null)
+            schema = build(key);
+        return schema;
+    }
+
+    private static BindSchema build(Key key) throws Exception {
+        BindSchema schema = new BindSchema(key.viewCls, key.nodeLevel, key.viewModelCls);
+        BindSchema old = schemas.putIfAbsent(key, schema);
+        return old != null ? old : schema;
+    }
+
+    /**
+     * Build schemas of the given targets in parallel on a background pool. A screen which is opened before its schema is ready joins the running build
+     *
+     * @param targets view & view-model classes
+     */
+    static void prewarm(List<BindTarget> targets) {
+        if (targets.isEmpty())
+            return;
+        for (BindTarget target : targets) {
+            Key key = new Key(target.viewCls, target.viewModelCls, target.nodeLevel);
+            if (schemas.containsKey(key) || warmUps.containsKey(key))
+                continue;
+            FutureTask<BindSchema> task = new FutureTask<>(() -> {
+                try {
+                    return build(key);
+                } catch (Exception e) {
+                    Utils.log(e, "warming up binding schema of " + key.viewCls.getName() + " failed");
+                    throw e;
+                } finally {
+                    warmUps.remove(key);
+                }
+            });
+            if (warmUps.putIfAbsent(key, task) == null)
+                warmUpPool.execute(task);
+        }
+    }
+
+    private BindSchema(Class<?> viewCls, int nodeLevel, Class<?> viewModelCls) throws Exception {
+        this.viewCls = viewCls;
+        this.viewModelCls = viewModelCls;
+        this.nodeLevel = nodeLevel;
+        this.binder = GeneratedBinders.of(viewCls);
+
+        // extract all field which are annotated by @XmlBindInfo or @VmBindInfo
+        List<Field> found = new ArrayList<>();
+        List<Integer> binderIndices = new ArrayList<>();
+        long t = BindStats.begin(viewCls, BindStats.Phase.FIELD_DISCOVERY);
+        try {
+            findAnnotatedFields(found, binderIndices);
+        } finally {
+            BindStats.end(viewCls, BindStats.Phase.FIELD_DISCOVERY, t);
+        }
+
+        // put setters/getters of view & view-model objects into the schema
+        fields = new FieldSchema[found.size()];
+        t = BindStats.begin(viewCls, BindStats.Phase.METHOD_EXTRACTION);
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                Field f = found.get(i);
+                int binderIndex = binderIndices.get(i);
+                MethodSchema md = null;
+                VmBindInfo vmInfo = f.getAnnotation(VmBindInfo.class);
+                if (vmInfo != null && viewModelCls != null)
+                    md = extractMethods(vmInfo, binderIndex);
+                fields[i] = new FieldSchema(f, binderIndex, md);
+            }
+        } finally {
+            BindStats.end(viewCls, BindStats.Phase.METHOD_EXTRACTION, t);
+        }
+        viewIds = collectViewIds(fields);
+    }
+
+    /**
+     * @return sorted distinct ids of the view fields which are bound to xml
+     */
+    private static int[] collectViewIds(FieldSchema[] fields) {
+        int[] ids = new int[fields.length];
+        int n = 0;
+        for (FieldSchema fs : fields) {
+            if (fs.bindToXml && fs.isView)
+                ids[n++] = fs.resId;
+        }
+        Arrays.sort(ids, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i])
+                ids[distinct++] = ids[i];
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * Trace back the whole hierarchy till Object class to find all annotated fields (scope doesn't matter)
+     *
+     * @param found         found fields
+     * @param binderIndices index of each found field in the generated binder or -1
+     * @throws NoSuchFieldException if the generated binder is out of date
+     */
+    private void findAnnotatedFields(List<Field> found, List<Integer> binderIndices) throws NoSuchFieldException {
+        if (binder != null) {
+            appendGeneratedFields(found, binderIndices);
+            return;
+        }
+        Class<?> cls = viewCls;
+        appendFields(found, binderIndices, cls.getFields(), false);
+        for (int i = 0; i <= nodeLevel && cls != Object.class; i++) {
+            appendFields(found, binderIndices, cls.getDeclaredFields(), true);// public fields are already appended
+            cls = cls.getSuperclass();
+        }
+    }
+
+    /**
+     * Append annotated fields which are listed by the generated binder. There is no need to scan the classes
+     *
+     * @throws NoSuchFieldException if the generated binder is out of date
+     * @see #findAnnotatedFields(List, List)
+     */
+    private void appendGeneratedFields(List<Field> found, List<Integer> binderIndices) throws NoSuchFieldException {
+        for (int i = 0, n = binder.getFieldCount(); i < n; i++) {
+            int level = binder.getLevel(i);
+            if (level <= nodeLevel || binder.isPublic(i)) {
+                Class<?> owner = viewCls;
+                for (int j = 0; j < level; j++)
+                    owner = owner.getSuperclass();
+                Field f = owner.getDeclaredField(binder.getFieldName(i));
+                if (!binder.canSetField(i))
+                    f.setAccessible(true);
+                found.add(f);
+                binderIndices.add(i);
+            }
+        }
+    }
+
+    /**
+     * Append annotated fields of a hierarchy class
+     *
+     * @param fields     all the fields including private, protected, public and packaged scope
+     * @param skipPublic pass in true if public fields are appended already
+     * @see #findAnnotatedFields(List, List)
+     */
+    private static void appendFields(List<Field> found, List<Integer> binderIndices, Field[] fields, boolean skipPublic) {
+        for (Field f : fields) {
+            if (skipPublic && Modifier.isPublic(f.getModifiers()))
+                continue;
+            if (f.isAnnotationPresent(XmlBindInfo.class) || f.isAnnotationPresent(VmBindInfo.class)) {
+                f.setAccessible(true);
+                found.add(f);
+                binderIndices.add(-1);
+            }
+        }
+    }
+
+    /**
+     * Extract methods for a field
+     *
+     * @param bindInfo    annotation information
+     * @param binderIndex index of the field in the generated binder or -1
+     */
+    private MethodSchema extractMethods(VmBindInfo bindInfo, int binderIndex) throws Exception {
+        /*
+         * BindProcessor is due to connect view to view-model and vice versa via reflection:
+         * to get notified when the variable in view-model changes, view-model must return an observable via its getter
+         * checkout the following schema:
+         *  ______________     ______________     _____________________
+         * |        event:|-->|              |-->|:setter              |
+         * | view  getter:|-->|   BindProc   |   |          view-model |
+         * |       setter:|<--| (reflection) |<--|:getter:observable   |
+         * |______________|   |______________|   |_____________________|
+         */
+        // if an event is defined for view then a setter must be declared for view-model
+        if ((bindInfo.elmEventRegistererName().length() > 0 || bindInfo.elmGetter().length() > 0) && bindInfo.vmSetter().length() == 0) {
+            throw new Exception("as elmEventRegistererName() is set, I need to call vmSetter() when an event happens, but it is not defined");
+        }
+
+        // if a getter is defined for view-model then a setter must be declared for view
+        if (bindInfo.vmGetter().length() > 0 && bindInfo.elmSetter().length() == 0) {
+            throw new Exception("as vmGetter() is set, I need to call elmSetter() to load data into view, but it is not defined");
+        }
+
+        // if view must lister to view-model changes then vmGetter() must be set and its return type must be Observable. Type check happens at MethodSchema constructor
+        if (bindInfo.registerForVmChanges() && bindInfo.vmGetter().length() == 0) {
+            throw new Exception("as registerForVmChanges() is set to true, vmGetter() must be defined too while it is not");
+        }
+
+        // take whatever the generated binder offers, the rest is resolved via reflection
+        Invoker[] invokers = new Invoker[4];
+        if (binderIndex >= 0) {
+            boolean vmCovered = binder.getViewModelClass() != null && binder.getViewModelClass().isAssignableFrom(viewModelCls);
+            for (int kind = GeneratedBinder.ELM_SETTER; kind <= GeneratedBinder.VM_GETTER; kind++) {
+                if ((kind < GeneratedBinder.VM_SETTER || vmCovered) && binder.hasAccessor(binderIndex, kind))
+                    invokers[kind] = new GeneratedInvoker(binder, binderIndex, kind);
+            }
+        }
+        Class<?>[] params = new Class<?>[]{bindInfo.vmSetterParam(), Void.class};
+        findMissingInvokers(viewModelCls, new String[]{bindInfo.vmSetter(), bindInfo.vmGetter()}, params, invokers, GeneratedBinder.VM_SETTER);
+        return new MethodSchema(bindInfo, invokers);
+    }
+
+    /**
+     * Fill the setter/getter pair of invokers which are not provided by the generated binder via reflection
+     *
+     * @param cls         view element or view-model class
+     * @param methodNames setter and getter names
+     * @param paramTypes  setter and getter params
+     * @param invokers    invoker array. Null items will be filled
+     * @param offset      index of the setter in invokers. The getter comes right after that
+     * @throws Exception any reflection kind exception
+     */
+    private static void findMissingInvokers(Class<?> cls, String[] methodNames, Class<?>[] paramTypes, Invoker[] invokers, int offset) throws Exception {
+        boolean allResolved = true;
+        for (int i = 0; i < methodNames.length; i++) {
+            if (invokers[offset + i] != null)
+                methodNames[i] = "";// no need to search for it
+            else if (methodNames[i].length() > 0)
+                allResolved = false;
+        }
+        if (allResolved)
+            return;
+        MethodIndex index = MethodIndex.of(cls);
+        for (int i = 0; i < methodNames.length; i++) {
+            if (methodNames[i].length() > 0)
+                invokers[offset + i] = new ReflectiveInvoker(index.find(methodNames[i], paramTypes[i]));
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timing and counters of BindProcessor per view class and per field. It is disabled by default and costs a volatile read per call then.<br/>
+ * Enable it in debug builds to find slow screens and slow fields without a profiler:<br/>
+ * BindStats.setEnabled(true);<br/>
+ * ... open some screens ...<br/>
+ * Utils.log(BindStats.report());<br/>
+ * Phases can be emitted as android.os.Trace sections too (api 18+), so they show up in systrace/perfetto. Switch the modes before screens are opened
+ */
+public final class BindStats {
+    /**
+     * Steps of binding a screen
+     */
+    public enum Phase {
+        FIELD_DISCOVERY,// finding annotated fields. It happens once per schema
+        METHOD_EXTRACTION,// resolving setters/getters. It happens once per schema
+        XML_BINDING,// finding views & strings and writing them into fields
+        INITIAL_LOAD,// loading view-model data into views
+        LISTENER_REGISTRATION// registering view-model observers and view listeners
+    }
+
+    private static final long NOT_RECORDED = Long.MIN_VALUE;
+    private static final Phase[] PHASES = Phase.values();
+
+    private static volatile boolean enabled;
+    private static volatile boolean traceEnabled;
+    private static final ConcurrentHashMap<Class<?>, ScreenStats> screens = new ConcurrentHashMap<>();
+
+    private BindStats() {
+    }
+
+    /**
+     * @param enabled pass in true to record timing and counters
+     */
+    public static void setEnabled(boolean enabled) {
+        BindStats.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled pass in true to emit phases as android.os.Trace sections
+     */
+    public static void setTraceEnabled(boolean enabled) {
+        traceEnabled = enabled;
+    }
+
+    /**
+     * @param viewCls view class (Activity, Fragment, ...)
+     * @return recorded data of the screen or null if nothing is recorded
+     */
+    public static ScreenStats getScreenStats(Class<?> viewCls) {
+        return screens.get(viewCls);
+    }
+
+    /**
+     * @return recorded data of all screens, the slowest first
+     */
+    public static List<ScreenStats> getAllScreenStats() {
+        List<ScreenStats> lst = new ArrayList<>(screens.values());
+        Collections.sort(lst, new Comparator<ScreenStats>() {
+            @Override
+            public int compare(ScreenStats a, ScreenStats b) {
+                return Long.compare(b.getTotalNanos(), a.getTotalNanos());
+            }
+        });
+        return lst;
+    }
+
+    /**
+     * zero all counters
+     */
+    public static void reset() {
+        for (ScreenStats s : screens.values())
+            s.reset();
+    }
+
+    /**
+     * @return human readable report of all screens and their fields, the slowest first
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder(1024);
+        for (ScreenStats s : getAllScreenStats()) {
+            sb.append(s.viewCls.getName()).append(String.format(Locale.US, ": %.2fms, schema served warm %d times, cold %d times\n", s.getTotalNanos() / 1e6, s.getWarmOpens(), s.getColdOpens()));
+            for (Phase p : PHASES) {
+                if (s.getPhaseCount(p) > 0)
+                    sb.append(String.format(Locale.US, "  %s: %.2fms in %d runs\n", p, s.getPhaseNanos(p) / 1e6, s.getPhaseCount(p)));
+            }
+            for (FieldStats f : s.getFieldStats())
+                sb.append(String.format(Locale.US, "  .%s: %.2fms in %d invokes, %d view updates\n", f.name, f.getInvokeNanos() / 1e6, f.getInvokeCount(), f.getViewUpdates()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Start a phase
+     *
+     * @return token for end()
+     */
+    static long begin(Class<?> viewCls, Phase phase) {
+        if (traceEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+            Trace.beginSection(traceName(viewCls, phase));
+        return enabled ? System.nanoTime() : NOT_RECORDED;
+    }
+
+    /**
+     * End a phase which is started by begin()
+     *
+     * @param start the token which is returned by begin()
+     */
+    static void end(Class<?> viewCls, Phase phase, long start) {
+        if (traceEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+            Trace.endSection();
+        if (start != NOT_RECORDED)
+            screen(viewCls).record(phase, System.nanoTime() - start);
+    }
+
+    /**
+     * Record whether the binding schema of a view class was ready (warm) or was built on demand (cold)
+     */
+    static void schemaServed(Class<?> viewCls, boolean warm) {
+        if (enabled)
+            screen(viewCls).schemaServed(warm);
+    }
+
+    /**
+     * @return counters of the field, created on first use
+     */
+    static FieldStats field(Class<?> viewCls, String fieldName) {
+        return screen(viewCls).field(fieldName);
+    }
+
+    private static ScreenStats screen(Class<?> viewCls) {
+        ScreenStats s = screens.get(viewCls);
+        if (s == null) {
+            s = new ScreenStats(viewCls);
+            ScreenStats old = screens.putIfAbsent(viewCls, s);
+            if (old != null)
+                s = old;
+        }
+        return s;
+    }
+
+    private static String traceName(Class<?> viewCls, Phase phase) {
+        String name = "Bind:" + viewCls.getSimpleName() + ":" + phase;
+        return name.length() > 127 ? name.substring(0, 127) : name;// Trace limit
+    }
+
+    /**
+     * Recorded data of a view class
+     */
+    public static final class ScreenStats {
+        final Class<?> viewCls;
+        private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+        private final AtomicLongArray phaseCounts = new AtomicLongArray(PHASES.length);
+        private final ConcurrentHashMap<String, FieldStats> fields = new ConcurrentHashMap<>();
+        private final AtomicLong warmOpens = new AtomicLong();
+        private final AtomicLong coldOpens = new AtomicLong();
+
+        ScreenStats(Class<?> viewCls) {
+            this.viewCls = viewCls;
+        }
+
+        public Class<?> getViewClass() {
+            return viewCls;
+        }
+
+        /**
+         * @return sum of the phase over all runs in nanoseconds
+         */
+        public long getPhaseNanos(Phase phase) {
+            return phaseNanos.get(phase.ordinal());
+        }
+
+        /**
+         * @return number of runs of the phase
+         */
+        public long getPhaseCount(Phase phase) {
+            return phaseCounts.get(phase.ordinal());
+        }
+
+        /**
+         * @return number of times the binding schema was ready (e.g. by BindProcessor.prewarm())
+         */
+        public long getWarmOpens() {
+            return warmOpens.get();
+        }
+
+        /**
+         * @return number of times the binding schema was built on demand, or its running warm-up was joined
+         */
+        public long getColdOpens() {
+            return coldOpens.get();
+        }
+
+        /**
+         * @return sum of all phases in nanoseconds
+         */
+        public long getTotalNanos() {
+            long sum = 0;
+            for (int i = 0; i < PHASES.length; i++)
+                sum += phaseNanos.get(i);
+            return sum;
+        }
+
+        /**
+         * @return counters of the field or null if nothing is recorded
+         */
+        public FieldStats getFieldStats(String fieldName) {
+            return fields.get(fieldName);
+        }
+
+        /**
+         * @return counters of all fields, the slowest first
+         */
+        public List<FieldStats> getFieldStats() {
+            List<FieldStats> lst = new ArrayList<>(fields.values());
+            Collections.sort(lst, new Comparator<FieldStats>() {
+                @Override
+                public int compare(FieldStats a, FieldStats b) {
+                    return Long.compare(b.getInvokeNanos(), a.getInvokeNanos());
+                }
+            });
+            return lst;
+        }
+
+        void record(Phase phase, long nanos) {
+            phaseNanos.addAndGet(phase.ordinal(), nanos);
+            phaseCounts.incrementAndGet(phase.ordinal());
+        }
+
+        FieldStats field(String fieldName) {
+            FieldStats f = fields.get(fieldName);
+            if (f == null) {
+                f = new FieldStats(fieldName);
+                FieldStats old = fields.putIfAbsent(fieldName, f);
+                if (old != null)
+                    f = old;
+            }
+            return f;
+        }
+
+        void schemaServed(boolean warm) {
+            if (warm)
+                warmOpens.incrementAndGet();
+            else
+                coldOpens.incrementAndGet();
+        }
+
+        void reset() {
+            warmOpens.set(0);
+            coldOpens.set(0);
+            for (int i = 0; i < PHASES.length; i++) {
+                phaseNanos.set(i, 0);
+                phaseCounts.set(i, 0);
+            }
+            for (FieldStats f : fields.values())
+                f.reset();
+        }
+    }
+
+    /**
+     * Counters of a bound field. Invokes are calls of its setters & getters (view and view-model)
+     */
+    public static final class FieldStats {
+        final String name;
+        private final AtomicLong invokeCount = new AtomicLong();
+        private final AtomicLong invokeNanos = new AtomicLong();
+        private final AtomicLong viewUpdates = new AtomicLong();
+
+        FieldStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getInvokeCount() {
+            return invokeCount.get();
+        }
+
+        /**
+         * @return time spent in setters & getters of the field in nanoseconds
+         */
+        public long getInvokeNanos() {
+            return invokeNanos.get();
+        }
+
+        /**
+         * @return number of element setter calls
+         */
+        public long getViewUpdates() {
+            return viewUpdates.get();
+        }
+
+        void record(long nanos, boolean viewUpdate) {
+            invokeCount.incrementAndGet();
+            invokeNanos.addAndGet(nanos);
+            if (viewUpdate)
+                viewUpdates.incrementAndGet();
+        }
+
+        void reset() {
+            invokeCount.set(0);
+            invokeNanos.set(0);
+            viewUpdates.set(0);
+        }
+    }
+}
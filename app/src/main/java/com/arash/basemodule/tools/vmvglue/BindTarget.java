@@ -0,0 +1,34 @@
+package com.arash.basemodule.tools.vmvglue;
+
+/**
+ * A view class and its view-model class, as they are passed to BindProcessor.init(). It is used to build binding schemas ahead of time
+ *
+ * @see BindProcessor#prewarm(java.util.List)
+ */
+public final class BindTarget {
+    final Class<?> viewCls;
+    final int nodeLevel;
+    final Class<?> viewModelCls;
+
+    private BindTarget(Class<?> viewCls, int nodeLevel, Class<?> viewModelCls) {
+        this.viewCls = viewCls;
+        this.nodeLevel = nodeLevel;
+        this.viewModelCls = viewModelCls;
+    }
+
+    /**
+     * @see #of(Class, int, Class)
+     */
+    public static BindTarget of(Class<?> viewCls, Class<?> viewModelCls) {
+        return new BindTarget(viewCls, 0, viewModelCls);
+    }
+
+    /**
+     * @param viewCls      view class (Activity, Fragment, ViewHolder, ...)
+     * @param nodeLevel    the same nodeLevel which is passed to init()
+     * @param viewModelCls view-model class or null
+     */
+    public static BindTarget of(Class<?> viewCls, int nodeLevel, Class<?> viewModelCls) {
+        return new BindTarget(viewCls, nodeLevel, viewModelCls);
+    }
+}
@@ -0,0 +1,41 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.GeneratedBinder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the generated binder of a view class. Both hits and misses are remembered, so Class.forName() runs once per class
+ */
+final class GeneratedBinders {
+    static final String SUFFIX = "_VmvBinder";
+
+    private static final Map<Class<?>, GeneratedBinder> binders = new HashMap<>();
+
+    private GeneratedBinders() {
+    }
+
+    /**
+     * @param viewCls view class
+     * @return generated binder or null if annotation processor has not generated any for this class
+     */
+    static synchronized GeneratedBinder of(Class<?> viewCls) {
+        if (binders.containsKey(viewCls))
+            return binders.get(viewCls);
+        GeneratedBinder binder = null;
+        try {
+            Class<?> binderCls = Class.forName(viewCls.getName() + SUFFIX, true, viewCls.getClassLoader());
+            if (GeneratedBinder.class.isAssignableFrom(binderCls))
+                binder = (GeneratedBinder) binderCls.newInstance();
+        } catch (ClassNotFoundException ignored) {
+            // annotation processor is not hired for this class, reflection will do the job
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("generated binder of " + viewCls.getName() + " is not accessible", e);
+        } catch (InstantiationException e) {
+            throw new RuntimeException("generated binder of " + viewCls.getName() + " is not instantiable", e);
+        }
+        binders.put(viewCls, binder);
+        return binder;
+    }
+}
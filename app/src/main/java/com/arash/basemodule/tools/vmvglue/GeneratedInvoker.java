@@ -0,0 +1,31 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.GeneratedBinder;
+import com.arash.basemodule.tools.vmvglue.contracts.Invoker;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Invoker on top of a generated binder. No reflection happens here
+ */
+class GeneratedInvoker implements Invoker {
+    private final GeneratedBinder binder;
+    private final int index;
+    private final int kind;
+
+    GeneratedInvoker(GeneratedBinder binder, int index, int kind) {
+        this.binder = binder;
+        this.index = index;
+        this.kind = kind;
+    }
+
+    @Override
+    public Object invoke(Object target, Object arg) throws InvocationTargetException {
+        return binder.call(index, kind, target, arg);
+    }
+
+    @Override
+    public String toString() {
+        return binder.getClass().getName() + '[' + binder.getFieldName(index) + ':' + kind + ']';
+    }
+}
@@ -0,0 +1,222 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import com.arash.basemodule.contracts.Consumer;
+import com.arash.basemodule.contracts.Observable;
+import com.arash.basemodule.contracts.Observer;
+import com.arash.basemodule.tools.Utils;
+import com.arash.basemodule.tools.vmvglue.contracts.Invoker;
+import com.arash.basemodule.tools.vmvglue.contracts.ViewListenerProvider;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Binds list items (RecyclerView.ViewHolder or any other holder of an item view) by the same @XmlBindInfo and @VmBindInfo annotations.<br/>
+ * Create one binder per holder, when the holder is created. Views are found, element methods are resolved and view listeners are registered right there.
+ * Then bind() only switches the item view-model: it loads the new values into views and moves view-model observers to the new item.
+ * There is no reflection scan and no allocation by the binder itself per bind (view-model getters/setters are called directly if the compiler module is hired).<br/>
+ * The schema is shared by all holders of a class, so only the first holder pays for scanning.<br/><br/>
+ * class RowHolder extends RecyclerView.ViewHolder {<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&#64;XmlBindInfo(R.id.name) &#64;VmBindInfo(elmSetter = "setText", vmGetter = "getName") TextView name;<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;final ItemBinder binder = ItemBinder.create(this, itemView, Row.class);<br/>
+ * }<br/>
+ * onBindViewHolder(): holder.binder.bind(rows.get(position));<br/>
+ * onViewRecycled(): holder.binder.unbind();<br/><br/>
+ * Unlike BindProcessor, nothing is kept in SessionRepository. VmBindInfo.loadInBackground() is ignored as items are bound within a frame.
+ * All methods must be called on the main thread
+ */
+public final class ItemBinder {
+    private final BindSchema schema;
+    private final BindSchema.FieldSchema[] fields;
+    private final Object[] elms;
+    private final Invoker[] vSetters;// element setters resolved for the class of each element
+    private final LastValue[] lastValues;// last value which is pushed to or read from each element
+    private final Observer<Object>[] vmObservers;// created once, moved from item to item
+    private final Observable<Object>[] vmOutputs;// observables of the current item
+    private final ViewEventLimiter[] limiters;
+    private Object viewModelObj;
+
+    /**
+     * @see #create(Object, int, View, Class)
+     */
+    public static ItemBinder create(Object holder, View itemView, Class<?> viewModelCls) {
+        return create(holder, 0, itemView, viewModelCls);
+    }
+
+    /**
+     * @param holder       view holder instance which has the annotated fields
+     * @param nodeLevel    for current class is 0. If you are willing to get parents scanned too, pass in 1(parent), 2(grandparent), ...
+     * @param itemView     root view of the item
+     * @param viewModelCls class of item view-models
+     * @return a binder for the holder
+     */
+    public static ItemBinder create(Object holder, int nodeLevel, View itemView, Class<?> viewModelCls) {
+        try {
+            return new ItemBinder(BindSchema.of(holder.getClass(), nodeLevel, viewModelCls), holder, itemView);
+        } catch (Exception e) {
+            throw new RuntimeException("ItemBinder failed", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ItemBinder(BindSchema schema, Object holder, View itemView) throws Exception {
+        this.schema = schema;
+        fields = schema.fields;
+        int n = fields.length;
+        elms = new Object[n];
+        vSetters = new Invoker[n];
+        lastValues = new LastValue[n];
+        vmObservers = new Observer[n];
+        vmOutputs = new Observable[n];
+        limiters = new ViewEventLimiter[n];
+
+        long t = BindStats.begin(schema.viewCls, BindStats.Phase.XML_BINDING);
+        try {
+            SparseArray<View> views = ViewIndexer.index(itemView, schema.viewIds);
+            for (int i = 0; i < n; i++) {
+                lastValues[i] = new LastValue();
+                BindSchema.FieldSchema fs = fields[i];
+                if (!fs.bindToXml)
+                    continue;
+                Object elm;
+                if (fs.isView) {
+                    elm = views.get(fs.resId);
+                    if (elm == null)
+                        elm = itemView.findViewById(fs.resId);
+                } else if (fs.field.getType() == String.class) {
+                    elm = Utils.getString(fs.resId);
+                } else {
+                    throw new Exception(String.format("binding for field %s.%s failed. Only views and strings are allowed", schema.viewCls.getName(), fs.field.getName()));
+                }
+                if (elm == null)
+                    throw new Exception(String.format("element %s.%s not found by given id", schema.viewCls.getName(), fs.field.getName()));
+                elms[i] = elm;
+                if (fs.binderIndex >= 0 && schema.binder.canSetField(fs.binderIndex))
+                    schema.binder.setField(holder, fs.binderIndex, elm);
+                else
+                    fs.field.set(holder, elm);
+            }
+        } finally {
+            BindStats.end(schema.viewCls, BindStats.Phase.XML_BINDING, t);
+        }
+
+        t = BindStats.begin(schema.viewCls, BindStats.Phase.LISTENER_REGISTRATION);
+        try {
+            for (int i = 0; i < n; i++) {
+                BindSchema.MethodSchema md = fields[i].md;
+                if (md == null || elms[i] == null)
+                    continue;
+                vSetters[i] = md.getElementMethods(elms[i].getClass()).vSetterMethod;
+                final int index = i;
+                if (md.registerForVmChanges)
+                    vmObservers[i] = o -> loadValueIntoView(index, o);
+                if (md.vEventListenerProvider != null) {// view listeners stay registered for the whole life of the holder
+                    Consumer<Object> consumer = o -> onViewChanged(index, o);
+                    if (md.debounceMs > 0 || md.throttleMs > 0) {
+                        limiters[i] = new ViewEventLimiter(consumer, md.debounceMs, md.throttleMs);
+                        consumer = limiters[i];
+                    }
+                    ViewListenerProvider provider = md.vEventListenerProvider.get();
+                    provider.registerListener((View) elms[i], consumer);
+                }
+            }
+        } finally {
+            BindStats.end(schema.viewCls, BindStats.Phase.LISTENER_REGISTRATION, t);
+        }
+    }
+
+    /**
+     * Show the item. Values of the item are loaded into views and views follow its changes (registerForVmChanges()) till the next bind() or unbind()
+     *
+     * @param viewModelObj item view-model
+     */
+    @SuppressWarnings("unchecked")
+    public void bind(Object viewModelObj) {
+        unbind();
+        this.viewModelObj = viewModelObj;
+        if (viewModelObj == null)
+            return;
+        long t = BindStats.begin(schema.viewCls, BindStats.Phase.INITIAL_LOAD);
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                BindSchema.MethodSchema md = fields[i].md;
+                if (md == null || md.vmGetterMethod == null || elms[i] == null)
+                    continue;
+                try {// a failing field must not leave the other fields with values of the previous item
+                    Object result = md.vmGetterMethod.invoke(viewModelObj, null);
+                    if (result instanceof Observable) {
+                        if (vmObservers[i] != null) {
+                            vmOutputs[i] = (Observable<Object>) result;
+                            vmOutputs[i].observe(vmObservers[i]);
+                        }
+                        result = ((Observable<Object>) result).getValue();
+                    }
+                    loadValueIntoView(i, result);
+                } catch (IllegalAccessException e) {
+                    Utils.log(e, "binding " + schema.viewCls.getName() + "." + fields[i].field.getName() + " failed");
+                } catch (InvocationTargetException e) {
+                    Utils.log(e, "binding " + schema.viewCls.getName() + "." + fields[i].field.getName() + " failed");
+                } catch (RuntimeException e) {
+                    Utils.log(e, "binding " + schema.viewCls.getName() + "." + fields[i].field.getName() + " failed");
+                }
+            }
+        } finally {
+            BindStats.end(schema.viewCls, BindStats.Phase.INITIAL_LOAD, t);
+        }
+    }
+
+    /**
+     * Detach the current item. Pending view events are delivered to it first. Call it on recycle of the holder
+     */
+    public void unbind() {
+        for (int i = 0; i < fields.length; i++) {
+            if (limiters[i] != null)
+                limiters[i].flush();// pending value belongs to the current item
+            if (vmOutputs[i] != null) {
+                vmOutputs[i].removeObserver(vmObservers[i]);
+                vmOutputs[i] = null;
+            }
+        }
+        viewModelObj = null;
+    }
+
+    /**
+     * @return the bound item view-model or null
+     */
+    public Object getViewModel() {
+        return viewModelObj;
+    }
+
+    private void loadValueIntoView(int i, Object value) {
+        BindSchema.MethodSchema md = fields[i].md;
+        try {
+            value = BindProcessor.toElementValue(md, lastValues[i], value);
+            if (value != BindProcessor.NO_VALUE)
+                vSetters[i].invoke(elms[i], value);
+        } catch (IllegalAccessException e) {
+            Utils.log(e);
+        } catch (InvocationTargetException e) {
+            Utils.log(e);
+        } catch (RuntimeException e) {// thrown by the converter
+            Utils.log(e);
+        }
+    }
+
+    private void onViewChanged(int i, Object value) {
+        BindSchema.MethodSchema md = fields[i].md;
+        if (viewModelObj == null || lastValues[i].isSame(md.equality, value))// no item or just the echo of a value which is pushed by me
+            return;
+        value = BindProcessor.toViewModelValue(md, value);
+        if (value == BindProcessor.NO_VALUE)// rejected by the converter. e.g. a half typed number
+            return;
+        try {
+            md.vmSetterMethod.invoke(viewModelObj, value);
+        } catch (IllegalAccessException e) {
+            Utils.log(e);
+        } catch (InvocationTargetException e) {
+            Utils.log(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.ValueEquality;
+
+/**
+ * The last value which is pushed to or read from an element. It is used to skip redundant setter calls and echoes of pushed values.<br/>
+ * BindProcessor and ItemBinder keep one per bound element
+ */
+final class LastValue {
+    // marks the value as unknown
+    private static final Object UNKNOWN = new Object();
+
+    private Object value = UNKNOWN;
+
+    /**
+     * Compare the value with the last one and remember it
+     *
+     * @param equality equality strategy of the field
+     * @param newValue the value which is going to be pushed or is read
+     * @return true if the value is equal to the last one
+     */
+    boolean isSame(ValueEquality equality, Object newValue) {
+        if (value != UNKNOWN && equality.isEqual(value, newValue))
+            return true;
+        // mutable char sequences like Editable change in place, so keep a snapshot
+        value = newValue instanceof CharSequence && !(newValue instanceof String) ? newValue.toString() : newValue;
+        return false;
+    }
+
+    /**
+     * forget the last value, e.g. a new element knows nothing about previous values
+     */
+    void forget() {
+        value = UNKNOWN;
+    }
+}
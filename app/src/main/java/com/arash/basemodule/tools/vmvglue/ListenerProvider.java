@@ -1,7 +1,6 @@
 package com.arash.basemodule.tools.vmvglue;
 
 import android.text.Editable;
-import android.text.TextWatcher;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.CompoundButton;
@@ -15,6 +14,8 @@ import com.arash.basemodule.tools.vmvglue.contracts.ViewListenerProvider;
 
 import org.codejargon.feather.Provides;
 
+import java.lang.ref.WeakReference;
+
 import javax.inject.Named;
 
 public class ListenerProvider {
@@ -30,40 +31,27 @@ public class ListenerProvider {
     @Provides
     @Named(TEXT_VIEW_TEXT_CHANGE_LISTENER)
     public ViewListenerProvider getTextViewOnTextChangeListener() {
-        return new ViewListenerProvider() {
-            private TextWatcher tw;
+        return new ReusableListenerProvider<TextChangeWatcher>() {
+            private TextChangeWatcher attached;
 
             @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-
-                tw = new TextWatcher() {
-                    String s;
-
-                    @Override
-                    public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                        s = charSequence.toString();
-                    }
-
+            TextChangeWatcher createListener(View view, Consumer<Object> consumer) {
+                return new TextChangeWatcher() {
                     @Override
-                    public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-                    }
-
-                    @Override
-                    public void afterTextChanged(Editable editable) {
-                        String s2 = editable.toString();
-                        if (!s2.equals(s))
-                            consumer.accept(s2);
+                    void onChanged(Editable editable) {
+                        consumer.accept(editable.toString());
                     }
                 };
-                TextView v = (TextView) view;
-                v.addTextChangedListener(tw);
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
+            void setListener(View view, TextChangeWatcher listener) {
                 TextView v = (TextView) view;
-                v.removeTextChangedListener(tw);
+                if (attached != null)
+                    v.removeTextChangedListener(attached);
+                attached = listener;
+                if (listener != null)
+                    v.addTextChangedListener(listener);
             }
         };
     }
@@ -71,16 +59,15 @@ public class ListenerProvider {
     @Provides
     @Named(TEXT_VIEW_FOCUS_LOSE_LISTENER)
     public ViewListenerProvider getTextViewOnFocusLooseChangeListener() {
-        return new ViewListenerProvider() {
-
+        return new ReusableListenerProvider<View.OnFocusChangeListener>() {
             @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-                TextView v = (TextView) view;
-                v.setOnFocusChangeListener(new View.OnFocusChangeListener() {
+            View.OnFocusChangeListener createListener(View view, Consumer<Object> consumer) {
+                return new View.OnFocusChangeListener() {
                     String lastValue;
 
                     @Override
                     public void onFocusChange(View view, boolean b) {
+                        TextView v = (TextView) view;
                         if (b) {
                             lastValue = v.getText().toString();
                         } else {
@@ -89,13 +76,12 @@ public class ListenerProvider {
                                 consumer.accept(str);
                         }
                     }
-                });
+                };
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
-                TextView v = (TextView) view;
-                v.setOnFocusChangeListener(null);
+            void setListener(View view, View.OnFocusChangeListener listener) {
+                view.setOnFocusChangeListener(listener);
             }
         };
     }
@@ -104,39 +90,31 @@ public class ListenerProvider {
     @Provides
     @Named(M_EDIT_TEXT_CHANGE_LISTENER)
     public ViewListenerProvider getMEditTextOnTextChangeListener() {
-        return new ViewListenerProvider() {
-            private TextWatcher tw;
+        return new ReusableListenerProvider<TextChangeWatcher>() {
+            private TextChangeWatcher attached;
 
             @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-                MEditText v = (MEditText) view;
-                tw = new TextWatcher() {
-                    String s;
-
-                    @Override
-                    public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                        s = charSequence.toString();
-                    }
-
-                    @Override
-                    public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-                    }
-
+            TextChangeWatcher createListener(View view, Consumer<Object> consumer) {
+                WeakReference<MEditText> ref = new WeakReference<>((MEditText) view);// the watcher is kept by the provider, so it must not hold the view
+                return new TextChangeWatcher() {
                     @Override
-                    public void afterTextChanged(Editable editable) {
-                        String s2 = editable.toString();
-                        if (!s2.equals(s) && v.checkInput(s2, false))
-                            consumer.accept(s2);
+                    void onChanged(Editable editable) {
+                        MEditText v = ref.get();
+                        String s = editable.toString();
+                        if (v != null && v.checkInput(s, false))
+                            consumer.accept(s);
                     }
                 };
-                v.addTextChangedListener(tw);
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
+            void setListener(View view, TextChangeWatcher listener) {
                 MEditText v = (MEditText) view;
-                v.removeTextChangedListener(tw);
+                if (attached != null)
+                    v.removeTextChangedListener(attached);
+                attached = listener;
+                if (listener != null)
+                    v.addTextChangedListener(listener);
             }
         };
     }
@@ -144,16 +122,15 @@ public class ListenerProvider {
     @Provides
     @Named(M_EDIT_TEXT_FOCUS_LOSE_LISTENER)
     public ViewListenerProvider getMEditTextOnFocusLooseChangeListener() {
-        return new ViewListenerProvider() {
-
+        return new ReusableListenerProvider<View.OnFocusChangeListener>() {
             @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-                MEditText v = (MEditText) view;
-                v.setOnFocusChangeListener(new View.OnFocusChangeListener() {
+            View.OnFocusChangeListener createListener(View view, Consumer<Object> consumer) {
+                return new View.OnFocusChangeListener() {
                     String lastValue;
 
                     @Override
                     public void onFocusChange(View view, boolean b) {
+                        MEditText v = (MEditText) view;
                         if (b) {
                             lastValue = v.getText().toString();
                         } else {
@@ -162,13 +139,12 @@ public class ListenerProvider {
                                 consumer.accept(str);
                         }
                     }
-                });
+                };
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
-                MEditText v = (MEditText) view;
-                v.setOnFocusChangeListener(null);
+            void setListener(View view, View.OnFocusChangeListener listener) {
+                view.setOnFocusChangeListener(listener);
             }
         };
     }
@@ -177,13 +153,12 @@ public class ListenerProvider {
     @Provides
     @Named(CHECKABLE_CHECK_CHANGE_LISTENER)
     public ViewListenerProvider getCheckableCheckChangeListener() {
-        return new ViewListenerProvider() {
-            @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-                CompoundButton v = (CompoundButton) view;
-                v.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
-                    Boolean lastValue = null;
+        return new ReusableListenerProvider<CompoundButton.OnCheckedChangeListener>() {
+            private Boolean lastValue;
 
+            @Override
+            CompoundButton.OnCheckedChangeListener createListener(View view, Consumer<Object> consumer) {
+                return new CompoundButton.OnCheckedChangeListener() {
                     @Override
                     public void onCheckedChanged(CompoundButton compoundButton, boolean b) {
                         try {
@@ -194,13 +169,17 @@ public class ListenerProvider {
                             lastValue = b;
                         }
                     }
-                });
+                };
+            }
+
+            @Override
+            void setListener(View view, CompoundButton.OnCheckedChangeListener listener) {
+                ((CompoundButton) view).setOnCheckedChangeListener(listener);
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
-                CompoundButton v = (CompoundButton) view;
-                v.setOnCheckedChangeListener(null);
+            void reset() {
+                lastValue = null;
             }
         };
     }
@@ -209,13 +188,12 @@ public class ListenerProvider {
     @Provides
     @Named(RADIO_GROUP_SELECTED_ITEM_CHANGE_LISTENER)
     public ViewListenerProvider getRadioGroupSelectedItemChangeListener() {
-        return new ViewListenerProvider() {
-            @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-                RadioGroup v = (RadioGroup) view;
-                v.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
-                    int lastValue = -1;
+        return new ReusableListenerProvider<RadioGroup.OnCheckedChangeListener>() {
+            private int lastValue = -1;
 
+            @Override
+            RadioGroup.OnCheckedChangeListener createListener(View view, Consumer<Object> consumer) {
+                return new RadioGroup.OnCheckedChangeListener() {
                     @Override
                     public void onCheckedChanged(RadioGroup radioGroup, int i) {
                         try {
@@ -226,13 +204,17 @@ public class ListenerProvider {
                             lastValue = i;
                         }
                     }
-                });
+                };
+            }
+
+            @Override
+            void setListener(View view, RadioGroup.OnCheckedChangeListener listener) {
+                ((RadioGroup) view).setOnCheckedChangeListener(listener);
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
-                RadioGroup v = (RadioGroup) view;
-                v.setOnCheckedChangeListener(null);
+            void reset() {
+                lastValue = -1;
             }
         };
     }
@@ -241,13 +223,12 @@ public class ListenerProvider {
     @Provides
     @Named(SPINNER_SELECTED_ITEM_CHANGE_LISTENER)
     public ViewListenerProvider getSpinnerSelectedItemChangeListener() {
-        return new ViewListenerProvider() {
-            @Override
-            public void registerListener(View view, Consumer<Object> consumer) {
-                Spinner v = (Spinner) view;
-                v.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
-                    int lastValue = -1;
+        return new ReusableListenerProvider<AdapterView.OnItemSelectedListener>() {
+            private int lastValue = -1;
 
+            @Override
+            AdapterView.OnItemSelectedListener createListener(View view, Consumer<Object> consumer) {
+                return new AdapterView.OnItemSelectedListener() {
                     @Override
                     public void onItemSelected(AdapterView<?> adapterView, View view, int i, long l) {
                         try {
@@ -263,13 +244,17 @@ public class ListenerProvider {
                     public void onNothingSelected(AdapterView<?> adapterView) {
 
                     }
-                });
+                };
+            }
+
+            @Override
+            void setListener(View view, AdapterView.OnItemSelectedListener listener) {
+                ((Spinner) view).setOnItemSelectedListener(listener);
             }
 
             @Override
-            public void unregisterListener(View view, Consumer<Object> consumer) {
-                Spinner v = (Spinner) view;
-                v.setOnItemSelectedListener(null);
+            void reset() {
+                lastValue = -1;
             }
         };
     }
@@ -0,0 +1,89 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.Any;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Public methods of a class grouped by name. It is built once per class and shared by all bindings,
+ * so finding a method only scans its overloads instead of the whole getMethods() array
+ */
+final class MethodIndex {
+    private static final Method[] NONE = new Method[0];
+
+    // process-wide index cache
+    private static final ConcurrentHashMap<Class<?>, MethodIndex> indices = new ConcurrentHashMap<>();
+
+    private final Class<?> cls;
+    private final Map<String, Method[]> overloads;
+
+    private MethodIndex(Class<?> cls) {
+        this.cls = cls;
+        Method[] methods = cls.getMethods();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Method m : methods) {
+            Integer c = counts.get(m.getName());
+            counts.put(m.getName(), c == null ? 1 : c + 1);
+        }
+        overloads = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (Method m : methods) {// keep the order of getMethods()
+            Method[] bucket = overloads.get(m.getName());
+            if (bucket == null) {
+                bucket = new Method[counts.get(m.getName())];
+                overloads.put(m.getName(), bucket);
+            }
+            int i = 0;
+            while (bucket[i] != null)
+                i++;
+            bucket[i] = m;
+        }
+    }
+
+    /**
+     * @param cls target class
+     * @return shared index of the class
+     */
+    static MethodIndex of(Class<?> cls) {
+        MethodIndex index = indices.get(cls);
+        if (index == null) {
+            index = new MethodIndex(cls);
+            MethodIndex old = indices.putIfAbsent(cls, index);
+            if (old != null)
+                index = old;
+        }
+        return index;
+    }
+
+    /**
+     * Pick the method by its name and parameter type
+     *
+     * @param name      target method name
+     * @param paramType Any.class for the first overload, Void.class for no parameter, otherwise the type which must be acceptable by the only parameter
+     * @return the found method
+     * @throws Exception if no overload matches. The message lists all overloads
+     */
+    Method find(String name, Class<?> paramType) throws Exception {
+        Method[] candidates = overloads.get(name);
+        if (candidates == null)
+            candidates = NONE;
+        for (Method m : candidates) {
+            if (paramType == Any.class)
+                return m;
+            Class<?>[] p = m.getParameterTypes();
+            if (paramType == Void.class && p.length == 0)
+                return m;
+            if (p.length == 1 && p[0].isAssignableFrom(paramType))
+                return m;
+        }
+        StringBuilder sb = new StringBuilder(200);
+        sb.append("Found Method list in ").append(cls.getName()).append(": [\n");
+        for (Method m : candidates)
+            sb.append(m.toString()).append('\n');
+        sb.append("]. None of theme matched\n")
+                .append(name).append('(').append(paramType.getName()).append(')');
+        throw new Exception(sb.toString());
+    }
+}
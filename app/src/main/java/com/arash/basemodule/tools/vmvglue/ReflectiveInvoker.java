@@ -0,0 +1,37 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.Invoker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invoker on top of reflection. It is used whenever no generated binder is available.<br/>
+ * Access checks are disabled once and getters share an empty argument array.
+ * MethodHandles are not used as invoke-polymorphic call sites can not be dexed for api levels lower than 26
+ */
+class ReflectiveInvoker implements Invoker {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    final Method method;
+    private final boolean getter;
+
+    ReflectiveInvoker(Method method) {
+        this.method = method;
+        this.getter = method.getParameterTypes().length == 0;
+        try {
+            method.setAccessible(true);// skip access check on every call
+        } catch (SecurityException ignored) {
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object arg) throws InvocationTargetException, IllegalAccessException {
+        return getter ? method.invoke(target, NO_ARGS) : method.invoke(target, arg);
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.view.View;
+
+import com.arash.basemodule.contracts.Consumer;
+import com.arash.basemodule.tools.vmvglue.contracts.ViewListenerProvider;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * ViewListenerProvider which creates its listener once and attaches the same instance on every registration.<br/>
+ * BindProcessor keeps one provider per bound element for the whole life of the binding, so start/stop cycles cost no allocation.
+ * A new listener is created only if the view or the consumer is changed (e.g. after configuration change).<br/>
+ * The provider outlives the view, so the view is weakly referenced and listeners must not keep the view either. Use the view which is passed to listener callbacks instead.<br/>
+ * Values which are pushed into the view while the listener is detached are not seen by it, so state which a listener keeps about the last value must be cleared in reset()
+ *
+ * @param <L> listener type
+ */
+abstract class ReusableListenerProvider<L> implements ViewListenerProvider {
+    private L listener;
+    private WeakReference<View> view;
+    private Consumer<Object> consumer;
+
+    /**
+     * @return a new listener which passes values of the view to the consumer
+     */
+    abstract L createListener(View view, Consumer<Object> consumer);
+
+    /**
+     * attach the listener to the view. Pass in null as listener to detach it
+     */
+    abstract void setListener(View view, L listener);
+
+    /**
+     * Forget what the listener knows about the view. It is called on every registration, like a brand new listener
+     */
+    void reset() {
+    }
+
+    @Override
+    public final void registerListener(View view, Consumer<Object> consumer) {
+        if (listener == null || this.view.get() != view || this.consumer != consumer) {
+            listener = createListener(view, consumer);
+            this.view = new WeakReference<>(view);
+            this.consumer = consumer;
+        }
+        reset();
+        setListener(view, listener);
+    }
+
+    @Override
+    public final void unregisterListener(View view, Consumer<Object> consumer) {
+        setListener(view, null);
+    }
+}
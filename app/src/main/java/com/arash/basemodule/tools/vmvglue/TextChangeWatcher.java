@@ -0,0 +1,55 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+
+/**
+ * TextWatcher which reports only real changes of the text.<br/>
+ * Instead of copying the whole text before and after each edit, only the replaced region is kept (in a reusable buffer) and compared with
+ * the inserted region. So a keystroke costs a few char comparisons no matter how long the text is and the String is built only when a change is delivered
+ */
+abstract class TextChangeWatcher implements TextWatcher {
+    private char[] replaced = new char[16];// old chars of the region which is going to be replaced
+    private boolean changed;
+
+    /**
+     * Called from afterTextChanged() if the text is really changed
+     *
+     * @param text current text
+     */
+    abstract void onChanged(Editable text);
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        if (count != after)// length differs, nothing to keep
+            return;
+        if (replaced.length < count)
+            replaced = new char[Math.max(count, replaced.length * 2)];
+        for (int i = 0; i < count; i++)
+            replaced[i] = s.charAt(start + i);
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (changed)
+            return;
+        if (before != count) {
+            changed = true;
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (replaced[i] != s.charAt(start + i)) {
+                changed = true;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void afterTextChanged(Editable editable) {
+        if (changed) {
+            changed = false;
+            onChanged(editable);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.Any;
+import com.arash.basemodule.tools.vmvglue.contracts.ValueConverter;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of converters between element and view-model types.<br/>
+ * BindProcessor looks up a converter once per field while the schema is built, based on VmBindInfo.elmSetterParam() and VmBindInfo.vmSetterParam().
+ * If no converter matches, values are passed as they are.<br/>
+ * Text to number converters are registered by default. They parse the char sequence in place, so no String is built per event.
+ * Primitive targets (int, long, ...) reject empty text (and null) while boxed targets (Integer, Long, ...) take it as null.
+ * Register your own converters before the first init() of the screens which need them
+ */
+public final class ValueConverters {
+    private static final class Entry {
+        final Class<?> viewType;
+        final Class<?> vmType;
+        final ValueConverter<?, ?> converter;
+
+        Entry(Class<?> viewType, Class<?> vmType, ValueConverter<?, ?> converter) {
+            this.viewType = viewType;
+            this.vmType = vmType;
+            this.converter = converter;
+        }
+    }
+
+    // later registrations come first, so they override the built-in ones
+    private static final CopyOnWriteArrayList<Entry> entries = new CopyOnWriteArrayList<>();
+
+    static {
+        register(CharSequence.class, int.class, new IntConverter(false));
+        register(CharSequence.class, Integer.class, new IntConverter(true));
+        register(CharSequence.class, long.class, new LongConverter(false));
+        register(CharSequence.class, Long.class, new LongConverter(true));
+        register(CharSequence.class, float.class, new FloatConverter(false));
+        register(CharSequence.class, Float.class, new FloatConverter(true));
+        register(CharSequence.class, double.class, new DoubleConverter(false));
+        register(CharSequence.class, Double.class, new DoubleConverter(true));
+        register(CharSequence.class, BigDecimal.class, new BigDecimalConverter());
+    }
+
+    private ValueConverters() {
+    }
+
+    /**
+     * @param viewType  element value type. It matches elmSetterParam() of the same type or its sub types
+     * @param vmType    view-model value type. It must be the same as vmSetterParam(). int and Integer are different types here
+     * @param converter the converter
+     */
+    public static <V, M> void register(Class<V> viewType, Class<M> vmType, ValueConverter<V, M> converter) {
+        entries.add(0, new Entry(viewType, vmType, converter));
+    }
+
+    /**
+     * @param viewType element setter parameter type
+     * @param vmType   view-model setter parameter type
+     * @return the converter or null if values must be passed as they are
+     */
+    @SuppressWarnings("unchecked")
+    static ValueConverter<Object, Object> find(Class<?> viewType, Class<?> vmType) {
+        if (viewType == Any.class || vmType == Any.class || wrap(vmType).isAssignableFrom(wrap(viewType)))
+            return null;
+        for (Entry e : entries) {
+            if (e.vmType == vmType && e.viewType.isAssignableFrom(viewType))
+                return (ValueConverter<Object, Object>) e.converter;
+        }
+        return null;
+    }
+
+    private static Class<?> wrap(Class<?> cls) {
+        if (!cls.isPrimitive())
+            return cls;
+        if (cls == int.class)
+            return Integer.class;
+        if (cls == long.class)
+            return Long.class;
+        if (cls == boolean.class)
+            return Boolean.class;
+        if (cls == float.class)
+            return Float.class;
+        if (cls == double.class)
+            return Double.class;
+        if (cls == char.class)
+            return Character.class;
+        if (cls == byte.class)
+            return Byte.class;
+        if (cls == short.class)
+            return Short.class;
+        return Void.class;
+    }
+
+    /**
+     * Parse a decimal integer without building a String. Unicode digits (e.g. Persian ones) are accepted too
+     *
+     * @throws NumberFormatException on null or empty text, wrong chars or overflow
+     */
+    static long parseLong(CharSequence s, long min, long max) {
+        if (isEmpty(s))
+            throw new NumberFormatException("empty text");
+        int l = s.length(), i = 0;
+        boolean negative = false;
+        char c = s.charAt(0);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            if (++i == l)
+                throw new NumberFormatException("no digit");
+        }
+        long limit = negative ? min : -max;// accumulate negatively to reach Long.MIN_VALUE
+        long multMin = limit / 10;
+        long result = 0;
+        for (; i < l; i++) {
+            int d = Character.digit(s.charAt(i), 10);
+            if (d < 0 || result < multMin)
+                throw new NumberFormatException("not a number in range");
+            result *= 10;
+            if (result < limit + d)
+                throw new NumberFormatException("not a number in range");
+            result -= d;
+        }
+        return negative ? result : -result;
+    }
+
+    private static boolean isEmpty(CharSequence s) {
+        return s == null || s.length() == 0;
+    }
+
+    /**
+     * @throws NumberFormatException on null or empty text, so it is handled like any other wrong input
+     */
+    private static String text(CharSequence s) {
+        if (isEmpty(s))
+            throw new NumberFormatException("empty text");
+        return s.toString();
+    }
+
+    private static final class IntConverter implements ValueConverter<CharSequence, Integer> {
+        private final boolean nullable;
+
+        IntConverter(boolean nullable) {
+            this.nullable = nullable;
+        }
+
+        @Override
+        public Integer toViewModel(CharSequence viewValue) {
+            if (nullable && isEmpty(viewValue))
+                return null;
+            return (int) parseLong(viewValue, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public CharSequence toView(Integer vmValue) {
+            return vmValue == null ? "" : vmValue.toString();
+        }
+    }
+
+    private static final class LongConverter implements ValueConverter<CharSequence, Long> {
+        private final boolean nullable;
+
+        LongConverter(boolean nullable) {
+            this.nullable = nullable;
+        }
+
+        @Override
+        public Long toViewModel(CharSequence viewValue) {
+            if (nullable && isEmpty(viewValue))
+                return null;
+            return parseLong(viewValue, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        @Override
+        public CharSequence toView(Long vmValue) {
+            return vmValue == null ? "" : vmValue.toString();
+        }
+    }
+
+    private static final class FloatConverter implements ValueConverter<CharSequence, Float> {
+        private final boolean nullable;
+
+        FloatConverter(boolean nullable) {
+            this.nullable = nullable;
+        }
+
+        @Override
+        public Float toViewModel(CharSequence viewValue) {
+            if (nullable && isEmpty(viewValue))
+                return null;
+            return Float.parseFloat(text(viewValue));
+        }
+
+        @Override
+        public CharSequence toView(Float vmValue) {
+            return vmValue == null ? "" : vmValue.toString();
+        }
+    }
+
+    private static final class DoubleConverter implements ValueConverter<CharSequence, Double> {
+        private final boolean nullable;
+
+        DoubleConverter(boolean nullable) {
+            this.nullable = nullable;
+        }
+
+        @Override
+        public Double toViewModel(CharSequence viewValue) {
+            if (nullable && isEmpty(viewValue))
+                return null;
+            return Double.parseDouble(text(viewValue));
+        }
+
+        @Override
+        public CharSequence toView(Double vmValue) {
+            return vmValue == null ? "" : vmValue.toString();
+        }
+    }
+
+    private static final class BigDecimalConverter implements ValueConverter<CharSequence, BigDecimal> {
+        @Override
+        public BigDecimal toViewModel(CharSequence viewValue) {
+            return isEmpty(viewValue) ? null : new BigDecimal(viewValue.toString());
+        }
+
+        @Override
+        public CharSequence toView(BigDecimal vmValue) {
+            return vmValue == null ? "" : vmValue.toPlainString();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.os.SystemClock;
+
+import com.arash.basemodule.BaseModule;
+import com.arash.basemodule.contracts.Consumer;
+
+/**
+ * Rate limits values which come from a view event before they reach the view-model setter.<br/>
+ * debounce: the value is delivered when no other event has come for the given time.<br/>
+ * throttle: at most one value is delivered per time window. The first one goes at once and the last one of the window goes at the end of it.<br/>
+ * Delayed deliveries are posted to the shared main-thread handler, so no extra thread or timer is created per field.
+ * View events are fired on the main thread, so this class is not thread safe
+ */
+class ViewEventLimiter implements Consumer<Object>, Runnable {
+    private final Consumer<Object> target;
+    private final long debounceMs;
+    private final long throttleMs;
+
+    private Object pending;
+    private boolean hasPending;
+    private long lastDelivery = -1;// uptime of the last delivery
+
+    /**
+     * @param target     the consumer which finally receives values
+     * @param debounceMs debounce window. Pass in 0 if throttleMs is used
+     * @param throttleMs throttle window. Pass in 0 if debounceMs is used
+     */
+    ViewEventLimiter(Consumer<Object> target, long debounceMs, long throttleMs) {
+        this.target = target;
+        this.debounceMs = debounceMs;
+        this.throttleMs = throttleMs;
+    }
+
+    @Override
+    public void accept(Object o) {
+        if (debounceMs > 0) {
+            pending = o;
+            hasPending = true;
+            BaseModule.getHandler().removeCallbacks(this);
+            BaseModule.getHandler().postDelayed(this, debounceMs);
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (!hasPending && (lastDelivery < 0 || now - lastDelivery >= throttleMs)) {// window is open
+            lastDelivery = now;
+            target.accept(o);
+            return;
+        }
+        if (!hasPending)// the trailing value of the window is scheduled once
+            BaseModule.getHandler().postDelayed(this, lastDelivery + throttleMs - now);
+        pending = o;
+        hasPending = true;
+    }
+
+    /**
+     * Runs on the main thread at the end of the window
+     */
+    @Override
+    public void run() {
+        deliver();
+    }
+
+    /**
+     * Deliver the pending value right now, if there is any
+     */
+    void flush() {
+        BaseModule.getHandler().removeCallbacks(this);
+        deliver();
+    }
+
+    private void deliver() {
+        if (!hasPending)
+            return;
+        Object o = pending;
+        pending = null;
+        hasPending = false;
+        lastDelivery = SystemClock.uptimeMillis();
+        target.accept(o);
+    }
+}
@@ -0,0 +1,93 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.arash.basemodule.BaseModule;
+import com.arash.basemodule.tools.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Resolves a set of view ids with a single traversal of the view tree, instead of calling findViewById() once per id.<br/>
+ * Views are visited in the same pre-order as findViewById(), and the first match of each id wins. So an id which is reused by an included layout or a fragment resolves to the same view as findViewById().<br/>
+ * Unlike findViewById(), it descends into children which are marked as a root namespace (View.setIsRootNamespace(), a hidden api which apps do not use normally),
+ * so if such a child shares an id with a later view, a different view may be found. In debuggable apps each found view is checked against findViewById() and the result of findViewById() is used on a mismatch
+ */
+final class ViewIndexer {
+    private final int[] ids;// sorted requested ids
+    private final SparseArray<View> found;
+    private int remaining;
+
+    private static volatile Boolean verify;// null till it is known whether the app is debuggable
+
+    private ViewIndexer(int[] sortedIds) {
+        ids = sortedIds;
+        found = new SparseArray<>(sortedIds.length);
+        remaining = sortedIds.length;
+    }
+
+    /**
+     * @param root      root of the view tree
+     * @param sortedIds sorted array of distinct ids
+     * @return found views keyed by their id. Ids which are not found are absent
+     */
+    static SparseArray<View> index(View root, int[] sortedIds) {
+        ViewIndexer indexer = new ViewIndexer(sortedIds);
+        if (sortedIds.length > 0) {
+            indexer.visit(root);
+            if (shouldVerify())
+                indexer.verify(root);
+        }
+        return indexer.found;
+    }
+
+    private static boolean shouldVerify() {
+        Boolean v = verify;
+        if (v == null) {
+            Context context = BaseModule.getAppContext();
+            if (context == null)
+                return false;// not known yet
+            v = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+            verify = v;
+        }
+        return v;
+    }
+
+    /**
+     * check found views against findViewById()
+     */
+    private void verify(View root) {
+        for (int i = 0, n = found.size(); i < n; i++) {
+            int id = found.keyAt(i);
+            View view = root.findViewById(id);
+            if (view != found.valueAt(i)) {
+                Utils.log(String.format("ViewIndexer found another view than findViewById() for id 0x%x under %s", id, root.getClass().getName()));
+                found.setValueAt(i, view);
+            }
+        }
+    }
+
+    /**
+     * @return true when all ids are found, so the traversal can stop
+     */
+    private boolean visit(View view) {
+        int id = view.getId();
+        if (id != View.NO_ID && Arrays.binarySearch(ids, id) >= 0 && found.indexOfKey(id) < 0) {
+            found.put(id, view);
+            if (--remaining == 0)
+                return true;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, n = group.getChildCount(); i < n; i++) {
+                if (visit(group.getChildAt(i)))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.arash.basemodule.BaseModule;
+
+/**
+ * Collects view updates which are produced by view-model observers and applies them once per frame on the main thread.<br/>
+ * Only the last value of each field is kept, so a burst of view-model changes costs one setter call (and one relayout) per field.
+ * Updates may be posted from any thread
+ */
+abstract class ViewUpdateBatcher implements Choreographer.FrameCallback, Runnable {
+    // pending updates, guarded by this
+    private Object[] values;
+    private boolean[] dirty;
+    // the buffers which are being applied on the main thread. They are swapped with pending ones on each frame
+    private Object[] applyingValues;
+    private boolean[] applyingDirty;
+
+    private boolean scheduled;
+    private boolean active;
+
+    ViewUpdateBatcher(int size) {
+        values = new Object[size];
+        dirty = new boolean[size];
+        applyingValues = new Object[size];
+        applyingDirty = new boolean[size];
+    }
+
+    /**
+     * Apply a single update. It is called on the main thread
+     *
+     * @param index field index
+     * @param value the last posted value
+     */
+    abstract void apply(int index, Object value);
+
+    /**
+     * start accepting updates
+     */
+    synchronized void start() {
+        active = true;
+    }
+
+    /**
+     * queue an update for the next frame
+     *
+     * @param index field index
+     * @param value new value
+     */
+    void post(int index, Object value) {
+        synchronized (this) {
+            if (!active)
+                return;
+            values[index] = value;
+            dirty[index] = true;
+            if (scheduled)
+                return;
+            scheduled = true;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper())
+            Choreographer.getInstance().postFrameCallback(this);
+        else
+            BaseModule.getHandler().post(this);// Choreographer is bound to the looper of the caller thread, so hop to the main thread at first
+    }
+
+    /**
+     * Runs on the main thread when an update is posted from a background thread
+     */
+    @Override
+    public void run() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        synchronized (this) {
+            scheduled = false;
+            Object[] v = applyingValues;
+            applyingValues = values;
+            values = v;
+            boolean[] d = applyingDirty;
+            applyingDirty = dirty;
+            dirty = d;
+        }
+        for (int i = 0; i < applyingDirty.length; i++) {
+            if (applyingDirty[i]) {
+                Object value = applyingValues[i];
+                applyingDirty[i] = false;
+                applyingValues[i] = null;
+                apply(i, value);
+            }
+        }
+    }
+
+    /**
+     * Drop pending updates and stop accepting new ones. It must be called on the main thread
+     */
+    void cancel() {
+        synchronized (this) {
+            active = false;
+            scheduled = false;
+            for (int i = 0; i < dirty.length; i++) {
+                dirty[i] = false;
+                values[i] = null;
+            }
+        }
+        BaseModule.getHandler().removeCallbacks(this);
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+}
@@ -0,0 +1,21 @@
+package com.arash.basemodule.tools.vmvglue.contracts;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Introduce the view-model class of a view (Activity, Fragment, ...) to the annotation processor.<br/>
+ * It is optional. When it is present, generated binder calls view-model setters/getters directly, otherwise view-model methods are called via reflection
+ */
+@Inherited
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BindViewModel {
+    /**
+     * @return view-model class
+     */
+    Class<?> value();
+}
@@ -0,0 +1,77 @@
+package com.arash.basemodule.tools.vmvglue.contracts;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Annotation processor (compiler module) generates an implementation of this interface for every class which has @XmlBindInfo or @VmBindInfo fields.
+ * The generated class is named as [view class name]_VmvBinder and lives next to the view class.<br/>
+ * BindProcessor uses it instead of reflection scans. Anything which could not be resolved at compile time is reported as unavailable, then BindProcessor falls back to reflection for that part
+ */
+public interface GeneratedBinder {
+    int ELM_SETTER = 0;
+    int ELM_GETTER = 1;
+    int VM_SETTER = 2;
+    int VM_GETTER = 3;
+
+    /**
+     * @return number of annotated fields in the whole hierarchy of the view class
+     */
+    int getFieldCount();
+
+    /**
+     * @param index field index
+     * @return name of the field
+     */
+    String getFieldName(int index);
+
+    /**
+     * @param index field index
+     * @return hierarchy level of the class which declares the field. 0 for the view class itself, 1 for its parent, ...
+     */
+    int getLevel(int index);
+
+    /**
+     * @param index field index
+     * @return true if the field is public. Public fields are bound regardless of nodeLevel
+     */
+    boolean isPublic(int index);
+
+    /**
+     * @param index field index
+     * @return true if setField() can write the field directly, otherwise reflection must be used
+     */
+    boolean canSetField(int index);
+
+    /**
+     * write the field directly
+     *
+     * @param viewObj view instance
+     * @param index   field index
+     * @param value   field value
+     */
+    void setField(Object viewObj, int index, Object value);
+
+    /**
+     * @return declared view-model class by @BindViewModel or null
+     */
+    Class<?> getViewModelClass();
+
+    /**
+     * @param index field index
+     * @param kind  one of ELM_SETTER, ELM_GETTER, VM_SETTER or VM_GETTER
+     * @return true if the method is resolved at compile time
+     */
+    boolean hasAccessor(int index, int kind);
+
+    /**
+     * call the resolved method directly
+     *
+     * @param index  field index
+     * @param kind   one of ELM_SETTER, ELM_GETTER, VM_SETTER or VM_GETTER
+     * @param target view element or view-model instance
+     * @param arg    setter argument. It is ignored for getters
+     * @return getter output or null for setters
+     * @throws InvocationTargetException if the target method throws any exception
+     */
+    Object call(int index, int kind, Object target, Object arg) throws InvocationTargetException;
+}
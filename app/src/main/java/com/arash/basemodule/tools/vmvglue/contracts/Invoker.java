@@ -0,0 +1,18 @@
+package com.arash.basemodule.tools.vmvglue.contracts;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A pre-resolved setter or getter of a view element or a view-model.<br/>
+ * BindProcessor calls view and view-model methods only through this contract, so the way of calling (reflection, generated code, ...) is hidden from it
+ */
+public interface Invoker {
+    /**
+     * @param target the object which owns the method
+     * @param arg    setter argument. It is ignored for getters
+     * @return getter output or null for setters
+     * @throws InvocationTargetException if the target method throws any exception
+     * @throws IllegalAccessException    if the target method is not accessible
+     */
+    Object invoke(Object target, Object arg) throws InvocationTargetException, IllegalAccessException;
+}
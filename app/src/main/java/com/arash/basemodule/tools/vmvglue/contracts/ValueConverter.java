@@ -0,0 +1,24 @@
+package com.arash.basemodule.tools.vmvglue.contracts;
+
+/**
+ * Converts values between an element (view) type and a view-model type. For example the text of an EditText and an int field of the view-model.<br/>
+ * Converters are registered in ValueConverters and picked once per field from VmBindInfo.elmSetterParam() and VmBindInfo.vmSetterParam().
+ * Implementations are shared between bindings, so they must be stateless
+ *
+ * @param <V> element value type
+ * @param <M> view-model value type
+ */
+public interface ValueConverter<V, M> {
+    /**
+     * @param viewValue value which is read from the element
+     * @return value for the view-model setter
+     * @throws IllegalArgumentException if the value can not be converted (e.g. a half typed number). Such values are not passed to the view-model
+     */
+    M toViewModel(V viewValue);
+
+    /**
+     * @param vmValue value which is read from the view-model
+     * @return value for the element setter
+     */
+    V toView(M vmValue);
+}
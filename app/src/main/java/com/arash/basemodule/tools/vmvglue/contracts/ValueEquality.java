@@ -0,0 +1,67 @@
+package com.arash.basemodule.tools.vmvglue.contracts;
+
+/**
+ * BindProcessor remembers the last value which is pushed to or read from each element. Setter calls with an equal value are skipped.
+ * This contract decides what "equal" means for a field. Implementations must have a public no-arg constructor and must be stateless
+ *
+ * @see VmBindInfo#elmValueEquality()
+ */
+public interface ValueEquality {
+    /**
+     * @param lastValue last value which is pushed to or read from the element
+     * @param newValue  the value which is going to be pushed or read
+     * @return true to skip the setter call
+     */
+    boolean isEqual(Object lastValue, Object newValue);
+
+    /**
+     * equals() based comparison. Char sequences (String, Editable, ...) are compared by content without copying.<br/>
+     * Re-emitting the same instance of a mutable object is never skipped, as it may be changed in place. Only strings, boxed primitives and enums are immutable here
+     */
+    final class Default implements ValueEquality {
+        @Override
+        public boolean isEqual(Object lastValue, Object newValue) {
+            if (lastValue == newValue)
+                return newValue == null || isImmutable(newValue);
+            if (lastValue == null || newValue == null)
+                return false;
+            if (lastValue instanceof CharSequence && newValue instanceof CharSequence) {
+                CharSequence a = (CharSequence) lastValue, b = (CharSequence) newValue;
+                int l = a.length();
+                if (l != b.length())
+                    return false;
+                for (int i = 0; i < l; i++) {
+                    if (a.charAt(i) != b.charAt(i))
+                        return false;
+                }
+                return true;
+            }
+            return lastValue.equals(newValue);
+        }
+
+        private static boolean isImmutable(Object value) {
+            return value instanceof String || value instanceof Integer || value instanceof Long || value instanceof Boolean || value instanceof Double
+                    || value instanceof Float || value instanceof Character || value instanceof Short || value instanceof Byte || value instanceof Enum;
+        }
+    }
+
+    /**
+     * Equal only if both are the same instance
+     */
+    final class Identity implements ValueEquality {
+        @Override
+        public boolean isEqual(Object lastValue, Object newValue) {
+            return lastValue == newValue;
+        }
+    }
+
+    /**
+     * Never equal, so every value is pushed. Use it for mutable values which are changed in place
+     */
+    final class Never implements ValueEquality {
+        @Override
+        public boolean isEqual(Object lastValue, Object newValue) {
+            return false;
+        }
+    }
+}
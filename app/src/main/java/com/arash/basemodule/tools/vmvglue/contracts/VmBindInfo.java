@@ -52,4 +52,32 @@ public @interface VmBindInfo {
      * @return determine if view must register for view-model changes. By this way, vmGetter() must return a method with Observable<T> as output
      */
     boolean registerForVmChanges() default false;
+
+    /**
+     * @return the strategy which decides whether a value is equal to the last value pushed to or read from the element. Equal values are not passed to setters.
+     * By default, re-emitting the same instance of a mutable object is still pushed, as it may be changed in place
+     */
+    Class<? extends ValueEquality> elmValueEquality() default ValueEquality.Default.class;
+
+    /**
+     * Values of the view event are passed to vmSetter() only after the view has been quiet for this time. Useful for view-models which do heavy work on each change
+     *
+     * @return debounce time in milliseconds. 0 means no debounce
+     */
+    long debounceMs() default 0;
+
+    /**
+     * At most one value of the view event is passed to vmSetter() per this time. The last value of each window is never lost. It can not be used along with debounceMs()
+     *
+     * @return throttle time in milliseconds. 0 means no throttle
+     */
+    long throttleMs() default 0;
+
+    /**
+     * vmGetter() is called on a background thread when view-model data is loaded into view. Results are applied to views in one batch on the main thread.
+     * Use it for getters which read from disk or decode data. The getter must be safe to be called off the main thread
+     *
+     * @return true to call vmGetter() in background
+     */
+    boolean loadInBackground() default false;
 }
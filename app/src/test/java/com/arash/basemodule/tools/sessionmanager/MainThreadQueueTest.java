@@ -0,0 +1,118 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Main thread signals are drained by hand instead of the main looper
+ */
+public class MainThreadQueueTest {
+    private static final String SESSION = "main-thread";
+
+    private final List<Runnable> posted = new CopyOnWriteArrayList<>();
+
+    public static class Listener {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        volatile boolean ready;
+
+        @ListenFor(keyword = "a")
+        public void onA(Integer value) {
+            calls.add("a" + value);
+        }
+
+        @ListenFor(keyword = "b", latestOnly = true)
+        public void onB(Integer value) {
+            calls.add("b" + value);
+        }
+
+        @ListenFor(keyword = "c")
+        public void onC(Integer value) {
+            calls.add("c" + value);
+            throw new IllegalStateException("broken listener");
+        }
+
+        @ListenFor(keyword = "ready", mainThread = false, sticky = true)
+        public void onReady() {
+            ready = true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        SessionRepository.setMainThreadExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                posted.add(command);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        SessionRepository.setMainThreadExecutor(null);
+        SessionRepository.removeSession(SESSION);
+    }
+
+    private SessionRepository.Session registered(Listener listener) throws InterruptedException {
+        SessionRepository.Session session = SessionRepository.getSession(SESSION);
+        session.put("ready", null);
+        session.register(listener);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!listener.ready) {
+            assertTrue("registration timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        return session;
+    }
+
+    private void drain() {
+        List<Runnable> tasks = new ArrayList<>(posted);
+        posted.clear();
+        for (Runnable task : tasks)
+            task.run();
+    }
+
+    @Test
+    public void signalsAreBatchedInOrder() throws Exception {
+        Listener listener = new Listener();
+        SessionRepository.Session session = registered(listener);
+        session.put("a", 1);
+        session.put("b", 1);
+        session.put("a", 2);
+        session.put("b", 2);
+        session.put("b", 3);
+        assertEquals(1, posted.size());// one task per batch
+        assertTrue(listener.calls.isEmpty());
+        drain();
+        assertEquals(Arrays.asList("a1", "b3", "a2"), listener.calls);
+
+        session.put("a", 3);
+        assertEquals(1, posted.size());// the next batch is posted again
+        drain();
+        assertEquals(Arrays.asList("a1", "b3", "a2", "a3"), listener.calls);
+    }
+
+    @Test
+    public void failingListenerDoesNotDropTheBatch() throws Exception {
+        Listener listener = new Listener();
+        SessionRepository.Session session = registered(listener);
+        session.put("a", 1);
+        session.put("c", 1);
+        session.put("a", 2);
+        drain();
+        assertEquals(Arrays.asList("a1", "c1", "a2"), listener.calls);
+
+        session.put("a", 3);
+        drain();
+        assertEquals(Arrays.asList("a1", "c1", "a2", "a3"), listener.calls);
+    }
+}
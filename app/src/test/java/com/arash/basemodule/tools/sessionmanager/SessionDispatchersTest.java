@@ -0,0 +1,89 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SessionDispatchersTest {
+    private static final int SIGNALS = 10_000;
+
+    public static class Ordered {
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(SIGNALS + 1);
+
+        @ListenFor(keyword = "n", mainThread = false, sticky = true, dispatcher = "io")
+        public void onN(Integer n) {
+            received.add(n);
+            done.countDown();
+        }
+    }
+
+    public static class Slow {
+        static final CountDownLatch release = new CountDownLatch(1);
+
+        @ListenFor(keyword = "go", mainThread = false, sticky = true, dispatcher = "io")
+        public void onGo(Integer n) throws InterruptedException {
+            release.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class Fast {
+        final CountDownLatch got = new CountDownLatch(1);
+
+        @ListenFor(keyword = "go", mainThread = false, sticky = true, dispatcher = "io")
+        public void onGo(Integer n) {
+            got.countDown();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SessionRepository.removeSession("ordered");
+        SessionRepository.removeSession("slow");
+        SessionRepository.removeSession("fast");
+    }
+
+    @Test
+    public void signalsKeepTheirOrderOnADispatcher() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession("ordered");
+        session.put("n", -1);
+        Ordered listener = new Ordered();
+        session.register(listener);
+        while (listener.received.isEmpty())// registration is done in background and delivers the current value
+            Thread.sleep(1);
+        for (int i = 0; i < SIGNALS; i++)
+            session.put("n", i);
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertEquals(SIGNALS + 1, listener.received.size());
+        for (int i = 0; i <= SIGNALS; i++)
+            assertEquals(Integer.valueOf(i - 1), listener.received.get(i));
+    }
+
+    @Test
+    public void slowListenerDoesNotStallOtherSessions() throws Exception {
+        SessionRepository.setParallelism(2);
+        SessionRepository.Session slow = SessionRepository.getSession("slow");
+        SessionRepository.Session fast = SessionRepository.getSession("fast");
+        slow.put("go", 1);
+        slow.register(new Slow());// gets stuck in its own session queue
+        Fast listener = new Fast();
+        fast.put("go", 1);
+        fast.register(listener);
+        try {
+            assertTrue(listener.got.await(5, TimeUnit.SECONDS));
+        } finally {
+            Slow.release.countDown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismMustBePositive() {
+        SessionRepository.setParallelism(0);
+    }
+}
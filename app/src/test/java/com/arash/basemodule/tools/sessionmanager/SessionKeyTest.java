@@ -0,0 +1,113 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SessionKeyTest {
+    private static final SessionKey<String> NAME = SessionKey.of("keyTest.name", String.class);
+    private static final SessionKey.IntKey COUNTER = SessionKey.ofInt("keyTest.counter");
+    private static final SessionKey.LongKey TIME = SessionKey.ofLong("keyTest.time");
+    private static final SessionKey.BooleanKey FLAG = SessionKey.ofBoolean("keyTest.flag");
+
+    public static class CounterListener {
+        final CountDownLatch got = new CountDownLatch(2);
+        volatile int last;
+
+        @ListenFor(keyword = "keyTest.counter", mainThread = false, sticky = true)
+        public void onCounter(int value) {
+            last = value;
+            got.countDown();
+        }
+    }
+
+    private final SessionRepository.Session session = SessionRepository.getSession("keyTest");
+
+    @After
+    public void tearDown() {
+        SessionRepository.removeSession(session);
+    }
+
+    @Test
+    public void typedKeySharesEntryWithItsName() {
+        session.put(NAME, "arash");
+        assertEquals("arash", session.get(NAME, null));
+        assertEquals("arash", session.get("keyTest.name", null));
+        assertTrue(session.containsKey("keyTest.name"));
+        session.remove("keyTest.name");
+        assertFalse(session.containsKey(NAME));
+    }
+
+    @Test
+    public void keysAreCanonical() {
+        assertSame(NAME, SessionKey.of("keyTest.name", String.class));
+        assertSame(COUNTER.boxed(), SessionKey.of("keyTest.counter", Integer.class));
+        assertSame(Integer.class, COUNTER.boxed().getType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyTypeIsDeclaredOnce() {
+        SessionKey.of("keyTest.name", Integer.class);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void putByNameIsChecked() {
+        session.put("keyTest.name", 12);
+    }
+
+    @Test
+    public void keysByNameAreNotKeptForever() throws Exception {
+        int before = SessionKey.size();
+        session.put("keyTest.kept", 1);
+        for (int i = 0; i < 10000; i++) {
+            session.put("keyTest.tmp" + i, i);
+            session.remove("keyTest.tmp" + i);
+        }
+        int size = SessionKey.size();
+        for (int i = 0; i < 20 && size > before + 100; i++) {// wait for unused keys to be collected
+            System.gc();
+            Thread.sleep(10);
+            size = SessionKey.size();
+        }
+        assertTrue(size + " keys are left", size <= before + 100);
+        assertSame(SessionKey.find("keyTest.kept"), SessionKey.named("keyTest.kept"));// held by its entry
+        assertEquals(1, session.get("keyTest.kept", null));
+        assertSame(NAME, SessionKey.named("keyTest.name"));
+    }
+
+    @Test
+    public void primitiveKeys() {
+        assertEquals(5, session.get(COUNTER, 5));
+        session.put(COUNTER, 7);
+        session.put(COUNTER, 8);
+        assertEquals(8, session.get(COUNTER, 0));
+        assertEquals(Integer.valueOf(8), session.get("keyTest.counter", null));
+        assertTrue(session.containsValue(8));
+
+        session.put(TIME, 1L << 40);
+        assertEquals(1L << 40, session.get(TIME, 0L));
+        session.put(FLAG, true);
+        assertTrue(session.get(FLAG, false));
+
+        session.put(COUNTER.boxed(), 9);// a boxed value over the same entry
+        assertEquals(9, session.get(COUNTER, 0));
+        session.remove(COUNTER.boxed());
+        assertEquals(3, session.get(COUNTER, 3));
+    }
+
+    @Test
+    public void primitiveSubscriber() throws Exception {
+        session.put(COUNTER, 1);
+        CounterListener listener = new CounterListener();
+        session.register(listener);
+        while (listener.got.getCount() == 2)// registration delivers the current value
+            Thread.sleep(1);
+        session.put(COUNTER, 2);
+        assertTrue(listener.got.await(5, TimeUnit.SECONDS));
+        assertEquals(2, listener.last);
+    }
+}
@@ -0,0 +1,134 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import com.arash.basemodule.contracts.Consumer;
+import com.arash.basemodule.tools.vmvglue.BindProcessor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SessionLimitsTest {
+    private final List<String> evicted = new ArrayList<>();
+    private final EvictionListener listener = new EvictionListener() {
+        @Override
+        public void onEvicted(SessionRepository.Session session, String key, Object value, Reason reason) {
+            evicted.add(key + "=" + value + ":" + reason);
+        }
+    };
+
+    public static class Screen {
+    }
+
+    @After
+    public void tearDown() {
+        SessionRepository.setMaxSessions(0, null);
+        SessionRepository.removeSession(Screen.class.getName());
+        SessionRepository.removeSession("limits");
+        for (int i = 0; i < 5; i++)
+            SessionRepository.removeSession("limits" + i);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        SessionRepository.Session session = SessionRepository.getSession("limits");
+        session.setLimits(new SessionLimits().maxEntries(2).onEvicted(listener));
+        session.put("a", 1);
+        session.put("b", 2);
+        session.get("a", null);// b is the least recently used now
+        session.put("c", 3);
+        assertEquals(2, session.getSize());
+        assertTrue(session.containsKey("a"));
+        assertFalse(session.containsKey("b"));
+        assertEquals("[b=2:MAX_ENTRIES]", evicted.toString());
+    }
+
+    @Test
+    public void expiredEntryIsDropped() throws InterruptedException {
+        SessionRepository.Session session = SessionRepository.getSession("limits");
+        session.setLimits(new SessionLimits().ttl(50).onEvicted(listener));
+        session.put("a", "x");
+        assertEquals("x", session.get("a", null));
+        Thread.sleep(80);
+        assertFalse(session.containsKey("a"));
+        assertNull(session.get("a", null));
+        assertEquals("[a=x:EXPIRED]", evicted.toString());
+    }
+
+    @Test
+    public void byteBudget() {
+        SessionRepository.Session session = SessionRepository.getSession("limits");
+        SessionLimits.SizeOf length = new SessionLimits.SizeOf() {
+            @Override
+            public long sizeOf(Object value) {
+                return ((byte[]) value).length;
+            }
+        };
+        session.setLimits(new SessionLimits().byteBudget(3 * 64 + 1000, length).onEvicted(listener));
+        session.put("a", new byte[400]);
+        session.put("b", new byte[400]);
+        assertEquals(2, session.getSize());
+        session.put("c", new byte[400]);
+        assertEquals(2, session.getSize());
+        assertFalse(session.containsKey("a"));
+        assertEquals(1, evicted.size());
+        assertTrue(evicted.get(0).endsWith("BYTE_BUDGET"));
+    }
+
+    @Test
+    public void limitsApplyToExistingEntries() {
+        SessionRepository.Session session = SessionRepository.getSession("limits");
+        for (int i = 0; i < 5; i++)
+            session.put("k" + i, i);
+        session.setLimits(new SessionLimits().maxEntries(3));
+        assertEquals(3, session.getSize());
+        session.setLimits(null);
+        session.put("k5", 5);// which ones are kept depends on hash order, so a new key is put
+        assertEquals(4, session.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedSessionIsEvicted() {
+        final List<String> sessions = new ArrayList<>();
+        SessionRepository.clearAllSessions();
+        SessionRepository.Session first = SessionRepository.getSession("limits0");
+        for (int i = 1; i < 3; i++)
+            SessionRepository.getSession("limits" + i);
+        SessionRepository.getSession("limits0");// limits1 is the least recently used now
+        SessionRepository.setMaxSessions(3, new Consumer<SessionRepository.Session>() {
+            @Override
+            public void accept(SessionRepository.Session session) {
+                sessions.add(session.getName());
+            }
+        });
+        SessionRepository.getSession("limits3");
+        assertEquals("[limits1]", sessions.toString());
+        assertSame(first, SessionRepository.getSession("limits0"));
+    }
+
+    @Test
+    public void boundScreenSessionIsNotEvicted() {
+        final List<String> sessions = new ArrayList<>();
+        SessionRepository.clearAllSessions();
+        Screen screen = new Screen();
+        BindProcessor.init(screen);// the least recently used session
+        SessionRepository.setMaxSessions(2, new Consumer<SessionRepository.Session>() {
+            @Override
+            public void accept(SessionRepository.Session session) {
+                sessions.add(session.getName());
+            }
+        });
+        for (int i = 0; i < 3; i++)
+            SessionRepository.getSession("limits" + i);
+        assertFalse(sessions.contains(Screen.class.getName()));
+        assertNotNull(SessionRepository.findSession(Screen.class.getName()));
+
+        BindProcessor.finish(screen);// the screen is gone, its session may be dropped now
+        for (int i = 3; i < 5; i++)
+            SessionRepository.getSession("limits" + i);
+        assertTrue(sessions.contains(Screen.class.getName()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import com.arash.basemodule.contracts.Supplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SessionLoadTest {
+    private static final SessionKey<String> PROFILE = SessionKey.of("profile", String.class);
+
+    public static class Listener {
+        final CountDownLatch got = new CountDownLatch(1);
+        volatile String value;
+
+        @ListenFor(keyword = "profile", mainThread = false, sticky = true)
+        public void onProfile(String profile) {
+            value = profile;
+            got.countDown();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SessionRepository.removeSession("load");
+    }
+
+    @Test
+    public void concurrentCallersShareOneLoad() throws Exception {
+        final SessionRepository.Session session = SessionRepository.getSession("load");
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Supplier<String> loader = new Supplier<String>() {
+            @Override
+            public String get() {
+                calls.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "loaded";
+            }
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++)
+                results[i] = callers.submit(() -> session.getOrLoad(PROFILE, loader));
+            Thread.sleep(50);// let all of them reach the loader
+            release.countDown();
+            for (Future<?> result : results)
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals("loaded", session.get(PROFILE, null));
+        assertEquals("loaded", session.getOrLoad(PROFILE, () -> "again"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void loadingFiresSubscribers() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession("load");
+        Listener listener = new Listener();
+        session.register(listener);
+        assertEquals("fresh", session.getOrLoadAsync(PROFILE, () -> "fresh").get(5, TimeUnit.SECONDS));
+        assertTrue(listener.got.await(5, TimeUnit.SECONDS));
+        assertEquals("fresh", listener.value);
+    }
+
+    @Test
+    public void failedLoadIsNotCached() {
+        SessionRepository.Session session = SessionRepository.getSession("load");
+        try {
+            session.getOrLoad("broken", () -> {
+                throw new IllegalStateException("offline");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("offline", e.getMessage());
+        }
+        assertFalse(session.containsKey("broken"));
+        assertEquals(7, session.getOrLoad("broken", () -> 7));
+    }
+
+    @Test
+    public void loaderAskingForItsOwnKeyFails() {
+        final SessionRepository.Session session = SessionRepository.getSession("load");
+        try {
+            session.getOrLoad("self", () -> session.getOrLoad("self", () -> 1));
+            fail();
+        } catch (IllegalStateException e) {
+            // it would wait for itself forever
+        }
+        assertFalse(session.containsKey("self"));
+    }
+
+    @Test
+    public void asyncLoadRunsOnGivenExecutor() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession("load");
+        final List<Runnable> queued = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        };
+        final AtomicInteger calls = new AtomicInteger();
+        Supplier<String> loader = () -> "v" + calls.incrementAndGet();
+        Future<String> first = session.getOrLoadAsync(PROFILE, loader, executor);
+        Future<String> second = session.getOrLoadAsync(PROFILE, loader, executor);
+        assertEquals(1, queued.size());// the queued load is shared
+        assertFalse(first.isDone());
+        assertEquals("v1", session.getOrLoad(PROFILE, loader));// a blocking caller does the queued load itself
+        assertEquals("v1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("v1", second.get(5, TimeUnit.SECONDS));
+        queued.get(0).run();// no-op, it is done already
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,243 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import com.arash.basemodule.tools.vmvglue.BindProcessor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class SessionPersistenceTest {
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private File dir;
+
+    public static class Screen {
+    }
+
+    /**
+     * a value which is being changed by another thread while it is serialized
+     */
+    static class Flaky implements Serializable {
+        final String name;
+        transient boolean failing;
+
+        Flaky(String name) {
+            this.name = name;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            if (failing)
+                throw new ConcurrentModificationException();
+            out.defaultWriteObject();
+        }
+    }
+
+    /**
+     * a session map for SessionStore
+     */
+    private static class MapSource implements SessionStore.Source {
+        final Map<SessionKey<?>, Object> values = new HashMap<>();
+
+        void put(SessionStore store, String key, Object value) {
+            SessionKey<?> k = SessionKey.named(key);
+            values.put(k, value);
+            store.changed(k);
+        }
+
+        @Override
+        public Object current(SessionKey<?> key) {
+            return values.containsKey(key) ? values.get(key) : SessionStore.ABSENT;
+        }
+
+        @Override
+        public Iterable<SessionKey<?>> keys() {
+            return values.keySet();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("sessions", "");
+        dir.delete();
+        SessionRepository.setPersistenceDir(dir);
+    }
+
+    @After
+    public void tearDown() {
+        SessionRepository.setMaxSessions(0, null);
+        SessionRepository.removeSession("persisted");
+        SessionRepository.removeSession("other");
+        SessionRepository.setPersistent("persisted", false);
+        SessionRepository.removeSession(Screen.class.getName());
+        SessionRepository.setPersistent(Screen.class.getName(), false);
+        SessionRepository.setPersistenceDir(null);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files)
+                f.delete();
+        }
+        dir.delete();
+    }
+
+    private static Map<String, Object> restore(File file) {
+        final Map<String, Object> restored = new HashMap<>();
+        new SessionStore(file, DIRECT, new MapSource()).restore((key, value) -> restored.put(key, value));
+        return restored;
+    }
+
+    @Test
+    public void valuesSurviveRestore() {
+        File file = new File(dir, "a.session");
+        MapSource source = new MapSource();
+        SessionStore store = new SessionStore(file, DIRECT, source);
+        source.put(store, "s", "text");
+        source.put(store, "i", 7);
+        source.put(store, "l", 8L);
+        source.put(store, "b", true);
+        source.put(store, "n", null);
+        source.put(store, "bytes", new byte[]{1, 2});
+        source.put(store, "list", new ArrayList<>(Arrays.asList("x", "y")));
+        source.put(store, "thread", Thread.currentThread());// not persistable
+        store.close();
+
+        Map<String, Object> restored = restore(file);
+        assertEquals("text", restored.get("s"));
+        assertEquals(7, restored.get("i"));
+        assertEquals(8L, restored.get("l"));
+        assertEquals(true, restored.get("b"));
+        assertTrue(restored.containsKey("n"));
+        assertNull(restored.get("n"));
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) restored.get("bytes"));
+        assertEquals(Arrays.asList("x", "y"), restored.get("list"));
+        assertFalse(restored.containsKey("thread"));
+    }
+
+    @Test
+    public void tornRecordIsDropped() throws IOException {
+        File file = new File(dir, "b.session");
+        MapSource source = new MapSource();
+        SessionStore store = new SessionStore(file, DIRECT, source);
+        source.put(store, "a", "1");
+        store.close();
+        long length = file.length();
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write(new byte[]{0, 0, 0, 20, 1, 0});// a record which is cut by process death
+        out.close();
+
+        MapSource next = new MapSource();
+        store = new SessionStore(file, DIRECT, next);
+        final Map<String, Object> restored = new HashMap<>();
+        store.restore((key, value) -> restored.put(key, value));
+        assertEquals(length, file.length());
+        assertEquals("1", restored.get("a"));
+        next.values.put(SessionKey.named("a"), "1");
+        next.put(store, "b", "2");// the file is still good to append
+        store.close();
+        assertEquals(2, restore(file).size());
+    }
+
+    @Test
+    public void staleRecordsAreCompacted() {
+        File file = new File(dir, "c.session");
+        MapSource source = new MapSource();
+        SessionStore store = new SessionStore(file, DIRECT, source);
+        for (int i = 0; i < 1000; i++)
+            source.put(store, "counter", i);
+        source.values.remove(SessionKey.named("counter"));
+        store.changed(SessionKey.named("counter"));
+        source.put(store, "kept", "yes");
+        store.close();
+        assertTrue(file.length() < 2000);
+        Map<String, Object> restored = restore(file);
+        assertEquals(1, restored.size());
+        assertEquals("yes", restored.get("kept"));
+    }
+
+    @Test
+    public void droppedSessionIsRestored() {
+        SessionRepository.setPersistent("persisted", true);
+        SessionRepository.Session session = SessionRepository.getSession("persisted");
+        session.put("user", "arash");
+        session.put(SessionKey.ofInt("visits"), 3);
+        SessionRepository.setMaxSessions(1, null);// drops the session from memory, as if the process is killed
+        SessionRepository.getSession("other");
+        SessionRepository.Session restored = SessionRepository.getSession("persisted");
+        assertNotSame(session, restored);
+        assertEquals("arash", restored.get("user", null));
+        assertEquals(3, restored.get(SessionKey.ofInt("visits"), 0));
+
+        SessionRepository.setMaxSessions(0, null);
+        SessionRepository.removeSession("persisted");
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void viewModelLookupWritesNothing() {
+        String name = Screen.class.getName();
+        SessionRepository.setPersistent(name, true);
+        assertNull(BindProcessor.getViewModel(new Screen()));
+        SessionRepository.Session session = SessionRepository.getSession(name);
+        assertEquals(0, session.getSize());
+        session.sync();
+        File[] files = dir.listFiles();
+        assertTrue(files == null || files.length == 0);
+    }
+
+    @Test
+    public void failedWriteKeepsOldRecord() {
+        File file = new File(dir, "d.session");
+        MapSource source = new MapSource();
+        SessionStore store = new SessionStore(file, DIRECT, source);
+        source.put(store, "f", new Flaky("one"));
+        Flaky changing = new Flaky("two");
+        changing.failing = true;
+        source.put(store, "f", changing);
+        assertEquals("one", ((Flaky) restore(file).get("f")).name);
+
+        changing.failing = false;
+        store.flush();// the key is still marked
+        store.close();
+        assertEquals("two", ((Flaky) restore(file).get("f")).name);
+    }
+
+    @Test
+    public void putIsSerializedByFlush() {
+        File file = new File(dir, "e.session");
+        final List<Runnable> queued = new ArrayList<>();
+        MapSource source = new MapSource();
+        SessionStore store = new SessionStore(file, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        }, source);
+        Flaky value = new Flaky("one");
+        value.failing = true;// the putting thread must not serialize it
+        source.put(store, "f", value);
+        value.failing = false;
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        store.close();
+        assertEquals("one", ((Flaky) restore(file).get("f")).name);
+    }
+}
@@ -0,0 +1,202 @@
+package com.arash.basemodule.tools.sessionmanager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Many producers put signals while listeners are registered and unregistered concurrently. No signal of a registered listener may get lost
+ */
+public class SessionRepositoryStressTest {
+    private static final String SESSION = "stress";
+    private static final int PRODUCERS = 8;
+    private static final int PUTS = 20_000;
+    private static final int CHURNERS = 4;
+
+    public static class Counter {
+        final AtomicInteger signals = new AtomicInteger();
+        final AtomicInteger ready = new AtomicInteger();
+
+        @ListenFor(keyword = "signal", mainThread = false, sticky = true)
+        public void onSignal(Integer value) {
+            signals.incrementAndGet();
+        }
+
+        @ListenFor(keyword = "ready", mainThread = false, sticky = true)
+        public void onReady() {
+            ready.incrementAndGet();
+        }
+    }
+
+    public static class Churner {
+        @ListenFor(keyword = "signal", mainThread = false, sticky = true)
+        public void onSignal(Integer value) {
+        }
+
+        @ListenFor(keyword = "other", mainThread = false)
+        public void onOther(String value) {
+        }
+    }
+
+    public static class Latest {
+        volatile Integer queued;
+        volatile Integer direct;
+
+        @ListenFor(keyword = "latest", mainThread = false, sticky = true, dispatcher = "latest")
+        public void onQueued(Integer value) {
+            queued = value;
+        }
+
+        @ListenFor(keyword = "latest", mainThread = false, sticky = true)
+        public void onDirect(Integer value) {
+            direct = value;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SessionRepository.removeSession(SESSION);
+    }
+
+    @Test
+    public void noSignalIsLost() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession(SESSION);
+        Counter counter = new Counter();
+        session.register(counter);
+        awaitRegistration(session, counter);
+
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch producersDone = new CountDownLatch(PRODUCERS);
+        AtomicInteger running = new AtomicInteger(1);
+        Thread[] threads = new Thread[PRODUCERS + CHURNERS];
+        for (int t = 0; t < PRODUCERS; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < PUTS; i++) {
+                        session.put("signal", i);
+                        session.put("key" + id, i);
+                        session.get("key" + ((id + 1) % PRODUCERS), null);
+                        if (i % 100 == 0)
+                            session.remove("key" + id);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    producersDone.countDown();
+                }
+            });
+        }
+        for (int t = PRODUCERS; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    while (running.get() == 1) {
+                        Churner c = new Churner();
+                        session.register(c);
+                        session.put("other", "x");
+                        SessionRepository.getSession(SESSION).unregister(c);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+        }
+        for (Thread t : threads)
+            t.start();
+        start.countDown();
+        producersDone.await();
+        running.set(0);
+        for (Thread t : threads)
+            t.join();
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(PRODUCERS * PUTS, counter.signals.get());
+    }
+
+    @Test
+    public void unregisterCancelsPendingRegistration() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession(SESSION);
+        session.put("ready", null);
+        for (int i = 0; i < 1000; i++) {
+            Counter c = new Counter();
+            session.register(c);
+            session.unregister(c);
+        }
+        Counter last = new Counter();
+        session.register(last);
+        awaitRegistration(session, last);
+        session.put("signal", 1);
+        assertEquals(1, last.signals.get());
+    }
+
+    @Test
+    public void registrationSignalIsNotStale() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession(SESSION);
+        for (int round = 0; round < 100; round++) {
+            AtomicInteger running = new AtomicInteger(1);
+            Thread putter = new Thread(() -> {
+                for (int i = 0; running.get() == 1; i++)
+                    session.put("latest", i);
+            });
+            putter.start();
+            Latest latest = new Latest();
+            session.register(latest);// races with the puts
+            while (latest.queued == null || latest.direct == null)
+                Thread.sleep(1);
+            running.set(0);
+            putter.join();
+            Object last = session.get("latest", null);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!last.equals(latest.queued) || !last.equals(latest.direct)) {
+                assertTrue("round " + round + " ended with " + latest.queued + "/" + latest.direct + " instead of " + last, System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+            session.unregister(latest);
+        }
+    }
+
+    @Test
+    public void instancesOfOneClassAllGetSignals() throws Exception {
+        SessionRepository.Session session = SessionRepository.getSession(SESSION);
+        Counter first = new Counter();
+        Counter second = new Counter();
+        session.register(first);
+        awaitRegistration(session, first);
+        session.register(second);
+        awaitRegistration(session, second);
+        session.put("signal", 1);
+        assertEquals(1, first.signals.get());
+        assertEquals(1, second.signals.get());
+
+        session.register(first);// registering again replaces its own subscription only
+        long deadline = System.currentTimeMillis() + 5000;
+        while (first.signals.get() < 2) {// the sticky value at registration
+            assertTrue("registration timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        session.put("signal", 2);
+        assertEquals(3, first.signals.get());
+        assertEquals(2, second.signals.get());
+    }
+
+    /**
+     * registration is done in background, so wait till a signal reaches the listener
+     */
+    private static void awaitRegistration(SessionRepository.Session session, Counter counter) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.ready.get() == 0) {
+            assertTrue("registration timed out", System.currentTimeMillis() < deadline);
+            session.put("ready", null);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.XmlBindInfo;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BindSchemaPrewarmTest {
+    static class WarmScreen {
+        @XmlBindInfo(1)
+        String title;
+    }
+
+    static class ColdScreen {
+        @XmlBindInfo(1)
+        String title;
+    }
+
+    @After
+    public void tearDown() {
+        BindStats.setEnabled(false);
+        BindStats.reset();
+    }
+
+    @Test
+    public void warmedSchemaIsServedWarm() throws Exception {
+        BindStats.setEnabled(true);
+        BindProcessor.prewarm(Arrays.asList(BindTarget.of(WarmScreen.class, null), BindTarget.of(WarmScreen.class, 1, null)));
+        BindSchema schema = BindSchema.of(WarmScreen.class, 0, null);// joins the build if it is still running
+        assertEquals(1, schema.fields.length);
+        assertSame(schema, BindSchema.of(WarmScreen.class, 0, null));
+        assertNotSame(schema, BindSchema.of(WarmScreen.class, 1, null));
+
+        BindSchema.of(ColdScreen.class, 0, null);
+        BindSchema.of(ColdScreen.class, 0, null);
+
+        BindStats.ScreenStats warm = BindStats.getScreenStats(WarmScreen.class);
+        assertEquals(3, warm.getWarmOpens());// joining a running warm-up is not a cold open
+        assertEquals(0, warm.getColdOpens());
+        BindStats.ScreenStats cold = BindStats.getScreenStats(ColdScreen.class);
+        assertEquals(1, cold.getColdOpens());
+        assertEquals(1, cold.getWarmOpens());
+    }
+}
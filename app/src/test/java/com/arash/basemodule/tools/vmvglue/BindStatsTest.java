@@ -0,0 +1,56 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BindStatsTest {
+    private static class Screen {
+    }
+
+    @After
+    public void tearDown() {
+        BindStats.setEnabled(false);
+        BindStats.reset();
+    }
+
+    @Test
+    public void nothingIsRecordedWhileDisabled() {
+        class Other {
+        }
+        long t = BindStats.begin(Other.class, BindStats.Phase.XML_BINDING);
+        BindStats.end(Other.class, BindStats.Phase.XML_BINDING, t);
+        assertNull(BindStats.getScreenStats(Other.class));
+    }
+
+    @Test
+    public void phasesAndFieldsAreRecorded() throws Exception {
+        BindStats.setEnabled(true);
+        for (int i = 0; i < 2; i++) {
+            long t = BindStats.begin(Screen.class, BindStats.Phase.INITIAL_LOAD);
+            Thread.sleep(1);
+            BindStats.end(Screen.class, BindStats.Phase.INITIAL_LOAD, t);
+        }
+        BindStats.field(Screen.class, "name").record(1000, true);
+        BindStats.field(Screen.class, "name").record(500, false);
+        BindStats.field(Screen.class, "age").record(2000, false);
+
+        BindStats.ScreenStats s = BindStats.getScreenStats(Screen.class);
+        assertEquals(2, s.getPhaseCount(BindStats.Phase.INITIAL_LOAD));
+        assertTrue(s.getPhaseNanos(BindStats.Phase.INITIAL_LOAD) >= 2_000_000);
+        assertEquals(0, s.getPhaseCount(BindStats.Phase.XML_BINDING));
+        assertEquals(s.getPhaseNanos(BindStats.Phase.INITIAL_LOAD), s.getTotalNanos());
+
+        BindStats.FieldStats name = s.getFieldStats("name");
+        assertEquals(2, name.getInvokeCount());
+        assertEquals(1500, name.getInvokeNanos());
+        assertEquals(1, name.getViewUpdates());
+        assertEquals("age", s.getFieldStats().get(0).getName());// the slowest first
+        assertTrue(BindStats.report().contains(Screen.class.getName()));
+
+        BindStats.reset();
+        assertEquals(0, s.getTotalNanos());
+        assertEquals(0, name.getInvokeCount());
+    }
+}
@@ -0,0 +1,172 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.GeneratedBinder;
+import com.arash.basemodule.tools.vmvglue.contracts.Invoker;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Per-update cost of calling a view-model setter and a view getter, before (plain Method.invoke) and after (ReflectiveInvoker, generated binder).
+ * Numbers are logged, they are not asserted as they depend on the machine.<br/>
+ * It makes millions of calls, so it is not part of the regular suite. To run it, remove @Ignore locally and call:<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;./gradlew :app:testDebugUnitTest --tests '*InvokerBenchmark' -i
+ */
+@Ignore("benchmark, run it manually")
+public class InvokerBenchmark {
+    private static final int WARM_UP = 200_000;
+    private static final int ROUNDS = 1_000_000;
+    private static final int RUNS = 5;
+
+    public static class ViewModel {
+        private String name;
+        private int counter;
+
+        public void setName(String name) {
+            this.name = name;
+            counter++;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The same code the annotation processor generates for a single field
+     */
+    private static class Binder implements GeneratedBinder {
+        @Override
+        public int getFieldCount() {
+            return 1;
+        }
+
+        @Override
+        public String getFieldName(int index) {
+            return "name";
+        }
+
+        @Override
+        public int getLevel(int index) {
+            return 0;
+        }
+
+        @Override
+        public boolean isPublic(int index) {
+            return false;
+        }
+
+        @Override
+        public boolean canSetField(int index) {
+            return false;
+        }
+
+        @Override
+        public void setField(Object viewObj, int index, Object value) {
+            throw new IllegalArgumentException();
+        }
+
+        @Override
+        public Class<?> getViewModelClass() {
+            return ViewModel.class;
+        }
+
+        @Override
+        public boolean hasAccessor(int index, int kind) {
+            return kind >= VM_SETTER;
+        }
+
+        @Override
+        public Object call(int index, int kind, Object target, Object arg) throws InvocationTargetException {
+            try {
+                switch (index * 4 + kind) {
+                    case 2:
+                        ((ViewModel) target).setName((String) arg);
+                        return null;
+                    case 3:
+                        return ((ViewModel) target).getName();
+                }
+            } catch (Exception e) {
+                throw new InvocationTargetException(e);
+            }
+            throw new IllegalArgumentException();
+        }
+    }
+
+    @Test
+    public void setterCost() throws Exception {
+        Method setter = ViewModel.class.getMethod("setName", String.class);
+        ViewModel vm = new ViewModel();
+        String value = "value";
+
+        long before = measure(() -> setter.invoke(vm, value));
+        long reflective = measure(new Round(new ReflectiveInvoker(setter), vm, value));
+        long generated = measure(new Round(new GeneratedInvoker(new Binder(), 0, GeneratedBinder.VM_SETTER), vm, value));
+        report("setter", before, reflective, generated);
+
+        assertEquals(value, vm.getName());
+        assertEquals(3L * (WARM_UP + RUNS * ROUNDS), vm.counter);
+    }
+
+    @Test
+    public void getterCost() throws Exception {
+        Method getter = ViewModel.class.getMethod("getName");
+        ViewModel vm = new ViewModel();
+        vm.setName("value");
+
+        long before = measure(() -> getter.invoke(vm));
+        long reflective = measure(new Round(new ReflectiveInvoker(getter), vm, null));
+        long generated = measure(new Round(new GeneratedInvoker(new Binder(), 0, GeneratedBinder.VM_GETTER), vm, null));
+        report("getter", before, reflective, generated);
+
+        assertEquals("value", new ReflectiveInvoker(getter).invoke(vm, null));
+        assertEquals("value", new GeneratedInvoker(new Binder(), 0, GeneratedBinder.VM_GETTER).invoke(vm, null));
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private static class Round implements Call {
+        private final Invoker invoker;
+        private final Object target;
+        private final Object arg;
+
+        Round(Invoker invoker, Object target, Object arg) {
+            this.invoker = invoker;
+            this.target = target;
+            this.arg = arg;
+        }
+
+        @Override
+        public void run() throws Exception {
+            invoker.invoke(target, arg);
+        }
+    }
+
+    /**
+     * @return best of a few runs in nanoseconds per 1000 calls
+     */
+    private static long measure(Call call) throws Exception {
+        for (int i = 0; i < WARM_UP; i++)
+            call.run();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++)
+                call.run();
+            best = Math.min(best, (System.nanoTime() - start) / (ROUNDS / 1000));
+        }
+        return best;
+    }
+
+    private static void report(String name, long before, long reflective, long generated) {
+        Logger.getLogger(InvokerBenchmark.class.getName()).info(String.format("%s per 1000 updates: Method.invoke=%dns, ReflectiveInvoker=%dns, generated=%dns", name, before, reflective, generated));
+    }
+}
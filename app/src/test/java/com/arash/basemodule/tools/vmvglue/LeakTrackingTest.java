@@ -0,0 +1,37 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.sessionmanager.SessionRepository;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LeakTrackingTest {
+    static class RemovedScreen {
+    }
+
+    static class LeakedScreen {
+    }
+
+    @After
+    public void tearDown() {
+        BindProcessor.setLeakTrackingEnabled(false);
+        SessionRepository.removeSession(RemovedScreen.class.getName());
+        SessionRepository.removeSession(LeakedScreen.class.getName());
+    }
+
+    @Test
+    public void removedSessionIsNotReported() {
+        BindProcessor.setLeakTrackingEnabled(true);
+        BindProcessor.init(new RemovedScreen());
+        BindProcessor.init(new LeakedScreen());
+        SessionRepository.removeSession(RemovedScreen.class.getName());// e.g. by clearAllSessions() instead of finish()
+        int leaked = 0;
+        for (int i = 0; i < 20 && leaked == 0; i++) {// wait for the views to be collected
+            System.gc();
+            leaked = BindProcessor.reportLeakedBindings();
+        }
+        assertEquals(1, leaked);
+    }
+}
@@ -0,0 +1,93 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.Any;
+import com.arash.basemodule.tools.vmvglue.contracts.ValueConverter;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class ValueConvertersTest {
+
+    @Test
+    public void pickedByParamTypes() {
+        assertNotNull(ValueConverters.find(CharSequence.class, int.class));
+        assertNotNull(ValueConverters.find(String.class, Long.class));// String is a CharSequence
+        assertNull(ValueConverters.find(CharSequence.class, Any.class));
+        assertNull(ValueConverters.find(String.class, CharSequence.class));// assignable, no conversion
+        assertNull(ValueConverters.find(boolean.class, Boolean.class));
+        assertNull(ValueConverters.find(CharSequence.class, Object.class));
+    }
+
+    @Test
+    public void parsesWithoutString() {
+        StringBuilder sb = new StringBuilder("-2147483648");
+        assertEquals(Integer.MIN_VALUE, ValueConverters.parseLong(sb, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, ValueConverters.parseLong(String.valueOf(Long.MAX_VALUE), Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, ValueConverters.parseLong(String.valueOf(Long.MIN_VALUE), Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(123, ValueConverters.parseLong("۱۲۳", Integer.MIN_VALUE, Integer.MAX_VALUE));// Persian digits
+        for (String s : new String[]{"", "-", "12a", "2147483648", "9223372036854775808"}) {
+            try {
+                ValueConverters.parseLong(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                fail(s);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void emptyTextOfBoxedTypeIsNull() {
+        ValueConverter<Object, Object> primitive = ValueConverters.find(CharSequence.class, int.class);
+        ValueConverter<Object, Object> boxed = ValueConverters.find(CharSequence.class, Integer.class);
+        assertNull(boxed.toViewModel(""));
+        assertEquals("", boxed.toView(null));
+        assertEquals(42, primitive.toViewModel("42"));
+        assertEquals("42", primitive.toView(42));
+        try {
+            primitive.toViewModel("");
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        for (Class<?> type : new Class<?>[]{int.class, long.class, float.class, double.class}) {
+            try {
+                ValueConverters.find(CharSequence.class, type).toViewModel(null);
+                fail(type.getName());
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        assertNull(ValueConverters.find(CharSequence.class, Double.class).toViewModel(null));
+        assertEquals(new BigDecimal("1.50"), ValueConverters.find(CharSequence.class, BigDecimal.class).toViewModel("1.50"));
+    }
+
+    @Test
+    public void laterRegistrationWins() {
+        ValueConverter<CharSequence, Short> first = new ShortConverter(10), second = new ShortConverter(16);
+        assertNull(ValueConverters.find(String.class, Short.class));
+        ValueConverters.register(CharSequence.class, Short.class, first);
+        assertSame(first, ValueConverters.find(String.class, Short.class));
+        ValueConverters.register(CharSequence.class, Short.class, second);
+        assertSame(second, ValueConverters.find(String.class, Short.class));
+        assertNull(ValueConverters.find(String.class, short.class));// int and Integer like types are different
+        assertEquals(Short.valueOf((short) 255), second.toViewModel("ff"));
+    }
+
+    private static class ShortConverter implements ValueConverter<CharSequence, Short> {
+        private final int radix;
+
+        ShortConverter(int radix) {
+            this.radix = radix;
+        }
+
+        @Override
+        public Short toViewModel(CharSequence viewValue) {
+            return Short.parseShort(viewValue.toString(), radix);
+        }
+
+        @Override
+        public CharSequence toView(Short vmValue) {
+            return Integer.toString(vmValue, radix);
+        }
+    }
+}
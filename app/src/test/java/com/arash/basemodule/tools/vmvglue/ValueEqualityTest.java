@@ -0,0 +1,33 @@
+package com.arash.basemodule.tools.vmvglue;
+
+import com.arash.basemodule.tools.vmvglue.contracts.ValueEquality;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ValueEqualityTest {
+    private final ValueEquality equality = new ValueEquality.Default();
+
+    @Test
+    public void equalValuesAreSkipped() {
+        assertTrue(equality.isEqual("a", "a"));
+        assertTrue(equality.isEqual(1, 1));
+        assertTrue(equality.isEqual(null, null));
+        assertTrue(equality.isEqual("ab", new StringBuilder("ab")));
+        assertFalse(equality.isEqual("a", "b"));
+        assertFalse(equality.isEqual(null, "a"));
+    }
+
+    @Test
+    public void sameMutableInstanceIsPushedAgain() {
+        List<String> items = new ArrayList<>();
+        items.add("a");
+        assertFalse(equality.isEqual(items, items));// it may be changed in place
+        List<String> copy = new ArrayList<>(items);
+        assertTrue(equality.isEqual(copy, items));
+    }
+}
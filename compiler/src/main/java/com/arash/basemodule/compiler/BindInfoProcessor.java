@@ -0,0 +1,419 @@
+package com.arash.basemodule.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compile-time counterpart of BindProcessor.<br/>
+ * For every class which declares @XmlBindInfo/@VmBindInfo fields (or is annotated by @BindViewModel) a [class name]_VmvBinder is generated.
+ * The generated binder writes fields and calls view/view-model setters & getters directly, so BindProcessor skips reflection for them.<br/>
+ * Anything which can not be resolved safely here (private fields, ambiguous overloads, methods which exist only on runtime sub-types, ...) is marked as unavailable
+ * and BindProcessor handles it via reflection as before.<br/>
+ * Annotations are referenced by name, as this module is a plain java library and can not depend on the android library
+ */
+@SupportedAnnotationTypes({BindInfoProcessor.XML_BIND_INFO, BindInfoProcessor.VM_BIND_INFO, BindInfoProcessor.BIND_VIEW_MODEL})
+public class BindInfoProcessor extends AbstractProcessor {
+    static final String CONTRACTS = "com.arash.basemodule.tools.vmvglue.contracts";
+    static final String XML_BIND_INFO = CONTRACTS + ".XmlBindInfo";
+    static final String VM_BIND_INFO = CONTRACTS + ".VmBindInfo";
+    static final String BIND_VIEW_MODEL = CONTRACTS + ".BindViewModel";
+    static final String GENERATED_BINDER = CONTRACTS + ".GeneratedBinder";
+    static final String ANY = CONTRACTS + ".Any";
+    static final String OBSERVABLE = "com.arash.basemodule.contracts.Observable";
+    static final String SUFFIX = "_VmvBinder";
+
+    private static final int ELM_SETTER = 0;
+    private static final int ELM_GETTER = 1;
+    private static final int VM_SETTER = 2;
+    private static final int VM_GETTER = 3;
+
+    /**
+     * Everything the generated code needs to know about a field
+     */
+    private static class FieldInfo {
+        final VariableElement field;
+        final int level;
+        final boolean isPublic;
+        String writeType;// field type for casting, null if the field is not writable directly
+        String owner;// declaring class. The view is cast to it, so a field of a parent which is shadowed by a child is written correctly
+        final String[] calls = new String[4];// generated statements for ELM_SETTER, ELM_GETTER, VM_SETTER, VM_GETTER
+
+        FieldInfo(VariableElement field, int level) {
+            this.field = field;
+            this.level = level;
+            this.isPublic = field.getModifiers().contains(Modifier.PUBLIC);
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> views = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element e : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (e.getKind() == ElementKind.FIELD)
+                    views.add((TypeElement) e.getEnclosingElement());
+                else if (e.getKind() == ElementKind.CLASS)
+                    views.add((TypeElement) e);
+            }
+        }
+        for (TypeElement view : views) {
+            if (view.getKind() != ElementKind.CLASS || view.getModifiers().contains(Modifier.ABSTRACT))
+                continue;// abstract classes are never instantiated, so their binder is never used
+            String pkg = getPackage(view);
+            if (!isAccessible(view, pkg)) {
+                note(view, "no binder generated as the class is not accessible from its package. Reflection will be used");
+                continue;
+            }
+            try {
+                generate(view, pkg, collectFields(view, pkg));
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "writing binder failed: " + e.getMessage(), view);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trace back the whole hierarchy of the view class and collect annotated fields, just the way BindProcessor does at runtime
+     */
+    private List<FieldInfo> collectFields(TypeElement view, String pkg) {
+        TypeElement vmCls = findViewModelClass(view, pkg);
+        List<FieldInfo> fields = new ArrayList<>();
+        TypeElement cls = view;
+        int level = 0;
+        while (cls != null && !cls.getQualifiedName().contentEquals(Object.class.getName())) {
+            for (Element e : cls.getEnclosedElements()) {
+                if (e.getKind() != ElementKind.FIELD)
+                    continue;
+                AnnotationMirror xmlInfo = getAnnotation(e, XML_BIND_INFO);
+                AnnotationMirror vmInfo = getAnnotation(e, VM_BIND_INFO);
+                if (xmlInfo == null && vmInfo == null)
+                    continue;
+                FieldInfo fi = new FieldInfo((VariableElement) e, level);
+                fi.writeType = getWriteType(fi.field, pkg);
+                fi.owner = erasure(fi.field.getEnclosingElement().asType()).toString();
+                if (vmInfo != null)
+                    resolveMethods(fi, vmInfo, vmCls, pkg, level == 0);
+                fields.add(fi);
+            }
+            cls = getSuperclass(cls);
+            level++;
+        }
+        return fields;
+    }
+
+    /**
+     * @return the type of field for casting if the field can be written by generated code, otherwise null
+     */
+    private String getWriteType(VariableElement field, String pkg) {
+        Set<Modifier> mods = field.getModifiers();
+        if (mods.contains(Modifier.PRIVATE) || mods.contains(Modifier.FINAL))
+            return null;
+        TypeElement owner = (TypeElement) field.getEnclosingElement();
+        boolean accessible = isAccessible(owner, pkg) && (mods.contains(Modifier.PUBLIC) || pkg.equals(getPackage(owner)));
+        if (!accessible)
+            return null;
+        return getTypeName(field.asType(), pkg, false);
+    }
+
+    /**
+     * Resolve element and view-model methods at compile time. Unresolved ones remain null to be handled via reflection
+     */
+    private void resolveMethods(FieldInfo fi, AnnotationMirror vmInfo, TypeElement vmCls, String pkg, boolean report) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(vmInfo);
+        String elmSetter = (String) getValue(values, "elmSetter");
+        String elmGetter = (String) getValue(values, "elmGetter");
+        String elmEventRegistererName = (String) getValue(values, "elmEventRegistererName");
+        String vmSetter = (String) getValue(values, "vmSetter");
+        String vmGetter = (String) getValue(values, "vmGetter");
+        boolean registerForVmChanges = (Boolean) getValue(values, "registerForVmChanges");
+
+        // the same checks as BindProcessor.extractMethods(), but at compile time
+        if (report) {
+            if ((elmEventRegistererName.length() > 0 || elmGetter.length() > 0) && vmSetter.length() == 0)
+                error(fi.field, "as elmEventRegistererName() or elmGetter() is set, I need to call vmSetter() when an event happens, but it is not defined");
+            if (vmGetter.length() > 0 && elmSetter.length() == 0)
+                error(fi.field, "as vmGetter() is set, I need to call elmSetter() to load data into view, but it is not defined");
+            if (registerForVmChanges && vmGetter.length() == 0)
+                error(fi.field, "as registerForVmChanges() is set to true, vmGetter() must be defined too while it is not");
+        }
+
+        TypeElement elmCls = asAccessibleTypeElement(fi.field.asType(), pkg);
+        if (elmCls != null) {
+            fi.calls[ELM_SETTER] = setterCall(elmCls, elmSetter, (TypeMirror) getValue(values, "elmSetterParam"), pkg);
+            fi.calls[ELM_GETTER] = getterCall(elmCls, elmGetter);
+        }
+        if (vmCls != null) {
+            fi.calls[VM_SETTER] = setterCall(vmCls, vmSetter, (TypeMirror) getValue(values, "vmSetterParam"), pkg);
+            fi.calls[VM_GETTER] = getterCall(vmCls, vmGetter);
+            if (registerForVmChanges && fi.calls[VM_GETTER] != null) {
+                TypeMirror observable = erasure(processingEnv.getElementUtils().getTypeElement(OBSERVABLE));
+                if (!processingEnv.getTypeUtils().isSubtype(erasure(findGetter(vmCls, vmGetter).getReturnType()), observable)) {
+                    if (report)
+                        error(fi.field, "as registerForVmChanges() is set to true, " + vmGetter + " must return " + OBSERVABLE + " while it is not");
+                    fi.calls[VM_GETTER] = null;// let BindProcessor report it at runtime
+                }
+            }
+        }
+    }
+
+    /**
+     * @return setter statement or null if no unique public single-parameter method matches
+     */
+    private String setterCall(TypeElement cls, String name, TypeMirror paramType, String pkg) {
+        if (name.isEmpty())
+            return null;
+        boolean any = isType(paramType, ANY);
+        List<ExecutableElement> candidates = new ArrayList<>(4);
+        for (ExecutableElement m : getPublicMethods(cls, name)) {
+            if (m.getParameters().size() == 1 && (any || isParamAssignable(paramType, m.getParameters().get(0).asType())))
+                candidates.add(m);
+        }
+        if (candidates.isEmpty() || (any && candidates.size() > 1))
+            return null;// nothing found or ambiguous, leave it to reflection
+        ExecutableElement selected = null;
+        for (ExecutableElement m : candidates) {// pick the most specific overload
+            boolean mostSpecific = true;
+            for (ExecutableElement other : candidates)
+                mostSpecific &= isParamAssignable(m.getParameters().get(0).asType(), other.getParameters().get(0).asType());
+            if (mostSpecific) {
+                selected = m;
+                break;
+            }
+        }
+        if (selected == null)
+            return null;
+        String argType = getTypeName(selected.getParameters().get(0).asType(), pkg, true);
+        if (argType == null)
+            return null;
+        return "((" + cls.getQualifiedName() + ") target)." + name + "((" + argType + ") arg);\n                    return null;";
+    }
+
+    /**
+     * @return getter statement or null if no public getter without parameter is found
+     */
+    private String getterCall(TypeElement cls, String name) {
+        if (name.isEmpty() || findGetter(cls, name) == null)
+            return null;
+        return "return ((" + cls.getQualifiedName() + ") target)." + name + "();";
+    }
+
+    private ExecutableElement findGetter(TypeElement cls, String name) {
+        for (ExecutableElement m : getPublicMethods(cls, name)) {
+            if (m.getParameters().isEmpty() && m.getReturnType().getKind() != TypeKind.VOID)
+                return m;
+        }
+        return null;
+    }
+
+    private List<ExecutableElement> getPublicMethods(TypeElement cls, String name) {
+        List<ExecutableElement> result = new ArrayList<>(4);
+        for (Element e : processingEnv.getElementUtils().getAllMembers(cls)) {
+            if (e.getKind() == ElementKind.METHOD && e.getSimpleName().contentEquals(name)
+                    && e.getModifiers().contains(Modifier.PUBLIC) && !e.getModifiers().contains(Modifier.STATIC))
+                result.add((ExecutableElement) e);
+        }
+        return result;
+    }
+
+    /**
+     * The same rule as Class.isAssignableFrom() which is used by BindProcessor.getMethod(): primitives must match exactly
+     */
+    private boolean isParamAssignable(TypeMirror given, TypeMirror methodParam) {
+        if (given.getKind().isPrimitive() || methodParam.getKind().isPrimitive())
+            return processingEnv.getTypeUtils().isSameType(given, methodParam);
+        return processingEnv.getTypeUtils().isSubtype(erasure(given), erasure(methodParam));
+    }
+
+    /**
+     * @return view-model class declared by @BindViewModel on the view class or its parents
+     */
+    private TypeElement findViewModelClass(TypeElement view, String pkg) {
+        for (TypeElement cls = view; cls != null; cls = getSuperclass(cls)) {
+            AnnotationMirror mirror = getAnnotation(cls, BIND_VIEW_MODEL);
+            if (mirror != null) {
+                TypeMirror vm = (TypeMirror) getValue(processingEnv.getElementUtils().getElementValuesWithDefaults(mirror), "value");
+                TypeElement vmCls = asAccessibleTypeElement(vm, pkg);
+                if (vmCls == null)
+                    note(view, "view-model class is not accessible from " + pkg + ". Its methods will be called via reflection");
+                return vmCls;
+            }
+        }
+        return null;
+    }
+
+    // --- code writer ---------------------------------------------------
+
+    private void generate(TypeElement view, String pkg, List<FieldInfo> fields) throws IOException {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(view).toString();
+        String simpleName = (pkg.isEmpty() ? binaryName : binaryName.substring(pkg.length() + 1)) + SUFFIX;
+        TypeElement vmCls = findViewModelClass(view, pkg);
+
+        StringBuilder names = new StringBuilder(), levels = new StringBuilder(), publics = new StringBuilder(), writables = new StringBuilder(), accessors = new StringBuilder();
+        StringBuilder setField = new StringBuilder(), call = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            FieldInfo fi = fields.get(i);
+            String sep = i == 0 ? "" : ", ";
+            names.append(sep).append('"').append(fi.field.getSimpleName()).append('"');
+            levels.append(sep).append(fi.level);
+            publics.append(sep).append(fi.isPublic);
+            writables.append(sep).append(fi.writeType != null);
+            if (fi.writeType != null) {
+                setField.append("            case ").append(i).append(":\n")
+                        .append("                ((").append(fi.owner).append(") viewObj).").append(fi.field.getSimpleName()).append(" = (").append(fi.writeType).append(") value;\n")
+                        .append("                return;\n");
+            }
+            for (int kind = ELM_SETTER; kind <= VM_GETTER; kind++) {
+                accessors.append(i == 0 && kind == 0 ? "" : ", ").append(fi.calls[kind] != null);
+                if (fi.calls[kind] != null) {
+                    call.append("                case ").append(i * 4 + kind).append(":\n")
+                            .append("                    ").append(fi.calls[kind]).append('\n');
+                }
+            }
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? simpleName : pkg + '.' + simpleName, view);
+        try (Writer w = file.openWriter()) {
+            if (!pkg.isEmpty())
+                w.write("package " + pkg + ";\n\n");
+            w.write("// Generated by " + BindInfoProcessor.class.getName() + ". Do not edit!\n");
+            w.write("public final class " + simpleName + " implements " + GENERATED_BINDER + " {\n");
+            w.write("    private static final String[] NAMES = {" + names + "};\n");
+            w.write("    private static final int[] LEVELS = {" + levels + "};\n");
+            w.write("    private static final boolean[] PUBLIC = {" + publics + "};\n");
+            w.write("    private static final boolean[] WRITABLE = {" + writables + "};\n");
+            w.write("    private static final boolean[] ACCESSORS = {" + accessors + "};\n\n");
+            w.write("    @Override\n    public int getFieldCount() {\n        return NAMES.length;\n    }\n\n");
+            w.write("    @Override\n    public String getFieldName(int index) {\n        return NAMES[index];\n    }\n\n");
+            w.write("    @Override\n    public int getLevel(int index) {\n        return LEVELS[index];\n    }\n\n");
+            w.write("    @Override\n    public boolean isPublic(int index) {\n        return PUBLIC[index];\n    }\n\n");
+            w.write("    @Override\n    public boolean canSetField(int index) {\n        return WRITABLE[index];\n    }\n\n");
+            w.write("    @Override\n    public void setField(Object viewObj, int index, Object value) {\n");
+            if (setField.length() > 0)
+                w.write("        switch (index) {\n" + setField + "        }\n");
+            w.write("        throw new IllegalArgumentException(NAMES[index] + \" is not writable by generated code\");\n    }\n\n");
+            w.write("    @Override\n    public Class<?> getViewModelClass() {\n        return " + (vmCls == null ? "null" : vmCls.getQualifiedName() + ".class") + ";\n    }\n\n");
+            w.write("    @Override\n    public boolean hasAccessor(int index, int kind) {\n        return ACCESSORS[index * 4 + kind];\n    }\n\n");
+            w.write("    @Override\n    public Object call(int index, int kind, Object target, Object arg) throws java.lang.reflect.InvocationTargetException {\n");
+            if (call.length() > 0) {
+                w.write("        try {\n            switch (index * 4 + kind) {\n" + call + "            }\n");
+                w.write("        } catch (Exception e) {\n            throw new java.lang.reflect.InvocationTargetException(e);\n        }\n");
+            }
+            w.write("        throw new IllegalArgumentException(NAMES[index] + \" has no generated accessor of kind \" + kind);\n    }\n");
+            w.write("}\n");
+        }
+    }
+
+    // --- helpers -------------------------------------------------------
+
+    private AnnotationMirror getAnnotation(Element e, String annotationName) {
+        for (AnnotationMirror m : e.getAnnotationMirrors()) {
+            if (((TypeElement) m.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName))
+                return m;
+        }
+        return null;
+    }
+
+    private Object getValue(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name))
+                return entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    private TypeElement getSuperclass(TypeElement cls) {
+        TypeMirror sup = cls.getSuperclass();
+        return sup.getKind() == TypeKind.DECLARED ? (TypeElement) processingEnv.getTypeUtils().asElement(sup) : null;
+    }
+
+    private String getPackage(Element e) {
+        return processingEnv.getElementUtils().getPackageOf(e).getQualifiedName().toString();
+    }
+
+    /**
+     * @return true if the type (and all its enclosing types) can be referenced from the given package
+     */
+    private boolean isAccessible(TypeElement cls, String pkg) {
+        for (Element e = cls; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            Set<Modifier> mods = e.getModifiers();
+            if (mods.contains(Modifier.PRIVATE))
+                return false;
+            if (!mods.contains(Modifier.PUBLIC) && !pkg.equals(getPackage(e)))
+                return false;
+        }
+        return true;
+    }
+
+    private TypeElement asAccessibleTypeElement(TypeMirror type, String pkg) {
+        TypeMirror t = erasure(type);
+        if (t.getKind() != TypeKind.DECLARED)
+            return null;
+        TypeElement cls = (TypeElement) processingEnv.getTypeUtils().asElement(t);
+        return isAccessible(cls, pkg) ? cls : null;
+    }
+
+    /**
+     * @param boxPrimitives cast to wrapper type, so Object argument gets unboxed
+     * @return source code name of the type or null if it is not accessible from the package
+     */
+    private String getTypeName(TypeMirror type, String pkg, boolean boxPrimitives) {
+        TypeMirror t = erasure(type);
+        if (t.getKind().isPrimitive()) {
+            return boxPrimitives ? processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) t).getQualifiedName().toString() : t.toString();
+        }
+        if (t.getKind() == TypeKind.ARRAY) {
+            String component = getTypeName(((javax.lang.model.type.ArrayType) t).getComponentType(), pkg, false);
+            return component == null ? null : component + "[]";
+        }
+        TypeElement cls = asAccessibleTypeElement(t, pkg);
+        return cls == null ? null : cls.getQualifiedName().toString();
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private TypeMirror erasure(TypeElement cls) {
+        return processingEnv.getTypeUtils().erasure(cls.asType());
+    }
+
+    private boolean isType(TypeMirror type, String name) {
+        return type.getKind() == TypeKind.DECLARED && ((TypeElement) processingEnv.getTypeUtils().asElement(type)).getQualifiedName().contentEquals(name);
+    }
+
+    private void error(Element e, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, e);
+    }
+
+    private void note(Element e, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, msg, e);
+    }
+}
@@ -0,0 +1,253 @@
+package com.arash.basemodule.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compile-time counterpart of Session.register().<br/>
+ * For every class which declares @ListenFor methods a [class name]_SessionSubscribers is generated. It lists the subscriber methods of the whole hierarchy,
+ * just like getMethods() does at runtime, and calls them directly, so signal delivery skips Method.invoke().<br/>
+ * Classes which can not be handled here (inaccessible class or parameter types) get no table and Session scans them via reflection as before
+ */
+@SupportedAnnotationTypes(ListenForProcessor.LISTEN_FOR)
+public class ListenForProcessor extends AbstractProcessor {
+    static final String SESSION_MANAGER = "com.arash.basemodule.tools.sessionmanager";
+    static final String LISTEN_FOR = SESSION_MANAGER + ".ListenFor";
+    static final String GENERATED_SUBSCRIBERS = SESSION_MANAGER + ".GeneratedSubscribers";
+    static final String SUFFIX = "_SessionSubscribers";
+
+    /**
+     * Everything the generated code needs to know about a subscriber method
+     */
+    private static class SubscriberInfo {
+        final ExecutableElement method;
+        String keyword;
+        boolean mainThread;
+        boolean sticky;
+        boolean latestOnly;
+        String dispatcher;
+        String paramType;// boxed type name, null if the method has no parameter
+
+        SubscriberInfo(ExecutableElement method) {
+            this.method = method;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> listeners = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element e : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (e.getKind() != ElementKind.METHOD)
+                    continue;
+                Set<Modifier> mods = e.getModifiers();
+                if (!mods.contains(Modifier.PUBLIC) || mods.contains(Modifier.STATIC))
+                    warning(e, "@ListenFor method must be public and non-static, otherwise it is ignored");
+                else if (((ExecutableElement) e).getParameters().size() > 1)
+                    error(e, "number of parameters for " + e.getSimpleName() + " can not be greater than 1");
+                listeners.add((TypeElement) e.getEnclosingElement());
+            }
+        }
+        for (TypeElement listener : listeners) {
+            if (listener.getKind() != ElementKind.CLASS || listener.getModifiers().contains(Modifier.ABSTRACT))
+                continue;// abstract classes are never instantiated, so their table is never used
+            String pkg = getPackage(listener);
+            if (!isAccessible(listener, pkg)) {
+                note(listener, "no subscriber table generated as the class is not accessible from its package. Reflection will be used");
+                continue;
+            }
+            List<SubscriberInfo> subscribers = collectSubscribers(listener, pkg);
+            if (subscribers == null)
+                continue;
+            try {
+                generate(listener, pkg, subscribers);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "writing subscriber table failed: " + e.getMessage(), listener);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collect public @ListenFor methods of the whole hierarchy, the same set getMethods() returns at runtime
+     *
+     * @return subscribers or null if any of them can not be called from generated code
+     */
+    private List<SubscriberInfo> collectSubscribers(TypeElement listener, String pkg) {
+        List<SubscriberInfo> subscribers = new ArrayList<>();
+        for (Element e : processingEnv.getElementUtils().getAllMembers(listener)) {
+            if (e.getKind() != ElementKind.METHOD || !e.getModifiers().contains(Modifier.PUBLIC) || e.getModifiers().contains(Modifier.STATIC))
+                continue;
+            AnnotationMirror listenFor = getAnnotation(e, LISTEN_FOR);
+            if (listenFor == null)
+                continue;
+            ExecutableElement method = (ExecutableElement) e;
+            if (method.getParameters().size() > 1)
+                return null;// reported already or declared in a library, let runtime complain about it
+            SubscriberInfo si = new SubscriberInfo(method);
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(listenFor);
+            si.keyword = (String) getValue(values, "keyword");
+            si.mainThread = (Boolean) getValue(values, "mainThread");
+            si.sticky = (Boolean) getValue(values, "sticky");
+            si.latestOnly = (Boolean) getValue(values, "latestOnly");
+            si.dispatcher = (String) getValue(values, "dispatcher");
+            if (method.getParameters().size() == 1) {
+                si.paramType = getBoxedTypeName(method.getParameters().get(0).asType(), pkg);
+                if (si.paramType == null) {
+                    note(listener, "no subscriber table generated as parameter of " + method.getSimpleName() + " is not accessible from " + pkg + ". Reflection will be used");
+                    return null;
+                }
+            }
+            subscribers.add(si);
+        }
+        return subscribers;
+    }
+
+    // --- code writer ---------------------------------------------------
+
+    private void generate(TypeElement listener, String pkg, List<SubscriberInfo> subscribers) throws IOException {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(listener).toString();
+        String simpleName = (pkg.isEmpty() ? binaryName : binaryName.substring(pkg.length() + 1)) + SUFFIX;
+
+        StringBuilder names = new StringBuilder(), keywords = new StringBuilder(), mainThreads = new StringBuilder(), stickies = new StringBuilder(), latestOnlies = new StringBuilder(), dispatchers = new StringBuilder(), paramTypes = new StringBuilder();
+        StringBuilder dispatch = new StringBuilder();
+        for (int i = 0; i < subscribers.size(); i++) {
+            SubscriberInfo si = subscribers.get(i);
+            String sep = i == 0 ? "" : ", ";
+            names.append(sep).append('"').append(si.method.getSimpleName()).append('"');
+            keywords.append(sep).append(processingEnv.getElementUtils().getConstantExpression(si.keyword));
+            mainThreads.append(sep).append(si.mainThread);
+            stickies.append(sep).append(si.sticky);
+            latestOnlies.append(sep).append(si.latestOnly);
+            dispatchers.append(sep).append(processingEnv.getElementUtils().getConstantExpression(si.dispatcher));
+            paramTypes.append(sep).append(si.paramType == null ? "Void" : si.paramType).append(".class");
+            dispatch.append("                case ").append(i).append(":\n")
+                    .append("                    listener.").append(si.method.getSimpleName())
+                    .append(si.paramType == null ? "()" : "((" + si.paramType + ") arg)").append(";\n")
+                    .append("                    return;\n");
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? simpleName : pkg + '.' + simpleName, listener);
+        try (Writer w = file.openWriter()) {
+            if (!pkg.isEmpty())
+                w.write("package " + pkg + ";\n\n");
+            w.write("// Generated by " + ListenForProcessor.class.getName() + ". Do not edit!\n");
+            w.write("public final class " + simpleName + " implements " + GENERATED_SUBSCRIBERS + " {\n");
+            w.write("    private static final String[] NAMES = {" + names + "};\n");
+            w.write("    private static final String[] KEYWORDS = {" + keywords + "};\n");
+            w.write("    private static final boolean[] MAIN_THREAD = {" + mainThreads + "};\n");
+            w.write("    private static final boolean[] STICKY = {" + stickies + "};\n");
+            w.write("    private static final boolean[] LATEST_ONLY = {" + latestOnlies + "};\n");
+            w.write("    private static final String[] DISPATCHERS = {" + dispatchers + "};\n");
+            w.write("    private static final Class<?>[] PARAM_TYPES = {" + paramTypes + "};\n\n");
+            w.write("    @Override\n    public int getCount() {\n        return NAMES.length;\n    }\n\n");
+            w.write("    @Override\n    public String getMethodName(int index) {\n        return NAMES[index];\n    }\n\n");
+            w.write("    @Override\n    public String getKeyword(int index) {\n        return KEYWORDS[index];\n    }\n\n");
+            w.write("    @Override\n    public boolean isMainThread(int index) {\n        return MAIN_THREAD[index];\n    }\n\n");
+            w.write("    @Override\n    public boolean isSticky(int index) {\n        return STICKY[index];\n    }\n\n");
+            w.write("    @Override\n    public boolean isLatestOnly(int index) {\n        return LATEST_ONLY[index];\n    }\n\n");
+            w.write("    @Override\n    public String getDispatcher(int index) {\n        return DISPATCHERS[index];\n    }\n\n");
+            w.write("    @Override\n    public Class<?> getParamType(int index) {\n        return PARAM_TYPES[index];\n    }\n\n");
+            w.write("    @Override\n    public void dispatch(int index, Object target, Object arg) throws java.lang.reflect.InvocationTargetException {\n");
+            if (dispatch.length() > 0) {
+                w.write("        " + listener.getQualifiedName() + " listener = (" + listener.getQualifiedName() + ") target;\n");
+                w.write("        try {\n            switch (index) {\n" + dispatch + "            }\n");
+                w.write("        } catch (Exception e) {\n            throw new java.lang.reflect.InvocationTargetException(e);\n        }\n");
+            }
+            w.write("        throw new IllegalArgumentException(\"no subscriber at index \" + index);\n    }\n");
+            w.write("}\n");
+        }
+    }
+
+    // --- helpers -------------------------------------------------------
+
+    private AnnotationMirror getAnnotation(Element e, String annotationName) {
+        for (AnnotationMirror m : e.getAnnotationMirrors()) {
+            if (((TypeElement) m.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName))
+                return m;
+        }
+        return null;
+    }
+
+    private Object getValue(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name))
+                return entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    private String getPackage(Element e) {
+        return processingEnv.getElementUtils().getPackageOf(e).getQualifiedName().toString();
+    }
+
+    /**
+     * @return true if the type (and all its enclosing types) can be referenced from the given package
+     */
+    private boolean isAccessible(TypeElement cls, String pkg) {
+        for (Element e = cls; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            Set<Modifier> mods = e.getModifiers();
+            if (mods.contains(Modifier.PRIVATE))
+                return false;
+            if (!mods.contains(Modifier.PUBLIC) && !pkg.equals(getPackage(e)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return source code name of the type, primitives boxed, or null if it is not accessible from the package
+     */
+    private String getBoxedTypeName(TypeMirror type, String pkg) {
+        TypeMirror t = processingEnv.getTypeUtils().erasure(type);
+        if (t.getKind().isPrimitive())
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) t).getQualifiedName().toString();
+        if (t.getKind() == TypeKind.ARRAY) {
+            TypeMirror component = ((javax.lang.model.type.ArrayType) t).getComponentType();
+            String name = component.getKind().isPrimitive() ? component.toString() : getBoxedTypeName(component, pkg);
+            return name == null ? null : name + "[]";
+        }
+        if (t.getKind() != TypeKind.DECLARED)
+            return null;
+        TypeElement cls = (TypeElement) processingEnv.getTypeUtils().asElement(t);
+        return isAccessible(cls, pkg) ? cls.getQualifiedName().toString() : null;
+    }
+
+    private void error(Element e, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, e);
+    }
+
+    private void warning(Element e, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, msg, e);
+    }
+
+    private void note(Element e, String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, msg, e);
+    }
+}